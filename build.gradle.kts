@@ -6,6 +6,7 @@ plugins {
     id("org.jetbrains.kotlin.jvm") version "1.9.25"
     id("org.jetbrains.intellij") version "1.17.4"
     id("org.jetbrains.grammarkit") version "2022.3.2.2"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.clabs"
@@ -111,6 +112,16 @@ dependencies {
     testImplementation("junit:junit:4.13.2")
 }
 
+// JMH benchmarks (src/jmh) run against the same IntelliJ platform classes as the tests
+configurations {
+    named("jmhImplementation") {
+        extendsFrom(configurations.testImplementation.get())
+    }
+    named("jmhRuntimeOnly") {
+        extendsFrom(configurations.testRuntimeOnly.get())
+    }
+}
+
 // Make compile depend on generation tasks
 tasks.compileJava {
     dependsOn("generateLexer", "generateParser")
@@ -201,6 +212,25 @@ tasks.prepareTestingSandbox {
     pluginDependencies.set(emptyList())
 }
 
+// Configure benchmarks: ./gradlew jmh [-PjmhIncludes=LexerBenchmark]
+// Results are written to build/reports/jmh/results.json
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    // Report allocations per operation (gc.alloc.rate.norm) next to the timings
+    profilers.add("gc")
+    findProperty("jmhIncludes")?.toString()?.let { includes.set(listOf(it)) }
+    // Reuse the platform system properties and --add-opens flags the IntelliJ plugin sets up for tests
+    jvmArgsAppend.addAll(provider { tasks.test.get().allJvmArgs })
+    jvmArgsAppend.add("-Dsuperdb.examples=${projectDir}/examples")
+    // Stand-in language server for LspRoundTripBenchmark, runs from source with the JDK only
+    jvmArgsAppend.add("-Dsuperdb.standin=${projectDir}/scripts/standin-lsp.sh")
+}
+
 // LSP Configuration
 val lspRepo: String by project.extra {
     findProperty("lspRepo")?.toString() ?: "chrismo/superdb-lsp"
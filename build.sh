@@ -11,6 +11,7 @@ function usage() {
   echo ""
   echo "Leaf commands:"
   echo "  compile            Compile plugin"
+  echo "  bench [pattern]    Run JMH benchmarks (optionally only those matching pattern)"
   echo "  ide                Launch test IDE sandbox"
   echo "  lsp                Download latest LSP binaries"
   echo "  version            Show current version from git tags"
@@ -65,6 +66,19 @@ function test() {
   ./gradlew test
 }
 
+function bench() {
+  _cd_root
+  local pattern="${1:-}"
+  echo "==> Running benchmarks..."
+  if [ -n "$pattern" ]; then
+    ./gradlew jmh -PjmhIncludes="$pattern"
+  else
+    ./gradlew jmh
+  fi
+  echo ""
+  echo "Results: $(pwd)/build/reports/jmh/results.json"
+}
+
 function package() {
   _cd_root
   compile
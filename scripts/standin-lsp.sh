@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+#
+# Stand-in SuperSQL language server with scripted latencies and payload sizes,
+# for trying the plugin's LSP integration without superdb-lsp.
+# See src/test/java/org/clabs/superdb/lsp/StandInLanguageServer.java for the options.
+#
+# Usage: -Dsupersql.lsp.path=/path/to/scripts/standin-lsp.sh
+#        STANDIN_LSP_OPTIONS="completion.delay=200 completion.items=2000" scripts/standin-lsp.sh
+
+set -euo pipefail
+
+root="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+java="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+exec "$java" "$root/src/test/java/org/clabs/superdb/lsp/StandInLanguageServer.java" "$@"
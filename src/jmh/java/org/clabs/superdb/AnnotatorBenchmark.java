@@ -0,0 +1,91 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SyntaxTraverser;
+import org.clabs.superdb.psi.SuperSQLTypes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Built-in function detection from {@link SuperSQLAnnotator} over every node of pre-parsed
+ * .spq files, the way the annotation pass visits them.
+ * <p>
+ * {@code perIdentifierText} is the earlier per-IDENTIFIER check (lower-cased getText() plus
+ * a sibling scan comparing type names) kept for comparison; run with the gc profiler
+ * (on by default, see build.gradle.kts) to compare gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AnnotatorBenchmark {
+
+    private static final Set<String> BASELINE_FUNCTIONS = Set.of(
+            "abs", "base64", "bucket", "ceil", "cidr_match", "coalesce", "compare", "date_part",
+            "fields", "flatten", "floor", "grep", "grok", "has", "has_error", "hex", "is_error",
+            "join", "kind", "ksuid", "len", "length", "levenshtein", "log", "lower", "max", "min",
+            "missing", "nameof", "nest_dotted", "network_of", "now", "nullif", "parse_sup",
+            "parse_uri", "position", "pow", "quiet", "regexp", "regexp_replace", "replace",
+            "round", "split", "sqrt", "strftime", "trim", "typename", "typeof", "under",
+            "unflatten", "upper", "any", "avg", "dcount", "sum", "collect", "collect_map");
+
+    @Param({"examples", "query:2000"})
+    public String corpus;
+
+    private ASTNode[] nodes;
+    private BenchmarkFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture();
+        List<ASTNode> all = new ArrayList<>();
+        for (BenchmarkCorpus.Sample sample : BenchmarkCorpus.load(corpus)) {
+            if (!sample.isData()) {
+                PsiFile file = fixture.parseFully(sample);
+                ReadAction.run(() -> SyntaxTraverser.astTraverser(file.getNode()).forEach(all::add));
+            }
+        }
+        nodes = all.toArray(ASTNode[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public void callSites(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (ASTNode node : nodes) {
+                blackhole.consume(SuperSQLAnnotator.findBuiltinFunctionName(node));
+            }
+        });
+    }
+
+    @Benchmark
+    public void perIdentifierText(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (ASTNode node : nodes) {
+                if (node.getElementType() != SuperSQLTypes.IDENTIFIER) {
+                    continue;
+                }
+                String name = node.getText().toLowerCase(Locale.ROOT);
+                if (!BASELINE_FUNCTIONS.contains(name)) {
+                    continue;
+                }
+                ASTNode next = node.getTreeNext();
+                while (next != null && next.getElementType().toString().equals("WHITE_SPACE")) {
+                    next = next.getTreeNext();
+                }
+                blackhole.consume(next != null && next.getElementType() == SuperSQLTypes.LPAREN);
+            }
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package org.clabs.superdb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Inputs for the benchmarks.
+ * <p>
+ * A corpus is named by a benchmark {@code @Param}:
+ * <ul>
+ *   <li>{@code examples} - every .spq and .sup file in examples/</li>
+ *   <li>{@code query:N} - one synthetic .spq file with N declaration/pipeline blocks (~15 lines each)</li>
+ *   <li>{@code data:N} - one synthetic .sup file with N records, one per line</li>
+ *   <li>{@code values:N} - the same N records as a .spq {@code values} query</li>
+ * </ul>
+ */
+final class BenchmarkCorpus {
+
+    record Sample(String fileName, String text) {
+        boolean isData() {
+            return fileName.endsWith(".sup");
+        }
+    }
+
+    private BenchmarkCorpus() {
+    }
+
+    static List<Sample> load(String corpus) {
+        int colon = corpus.indexOf(':');
+        String kind = colon < 0 ? corpus : corpus.substring(0, colon);
+        int size = colon < 0 ? 0 : Integer.parseInt(corpus.substring(colon + 1));
+        return switch (kind) {
+            case "examples" -> examples();
+            case "query" -> List.of(new Sample("synthetic.spq", syntheticQuery(size)));
+            case "data" -> List.of(new Sample("synthetic.sup", syntheticData(size)));
+            case "values" -> List.of(new Sample("synthetic-values.spq", syntheticValues(size)));
+            default -> throw new IllegalArgumentException("Unknown corpus: " + corpus);
+        };
+    }
+
+    static List<Sample> examples() {
+        Path dir = Paths.get(System.getProperty("superdb.examples", "examples"));
+        List<Sample> samples = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(dir)) {
+            for (Path path : paths.sorted().toList()) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".spq") || name.endsWith(".sup")) {
+                    samples.add(new Sample(name, Files.readString(path)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read examples from " + dir.toAbsolutePath(), e);
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalStateException("No .spq/.sup files found in " + dir.toAbsolutePath());
+        }
+        return samples;
+    }
+
+    /**
+     * Declarations followed by one long pipeline, built from the constructs used in examples/.
+     */
+    static String syntheticQuery(int blocks) {
+        StringBuilder sb = new StringBuilder(blocks * 400);
+        for (int i = 0; i < blocks; i++) {
+            sb.append("-- block ").append(i).append('\n');
+            sb.append("const LIMIT_").append(i).append(" = ").append(i).append('\n');
+            sb.append("fn scale_").append(i).append("(x): x * ").append(i + 1).append('\n');
+            sb.append("/* record type\n   for block ").append(i).append(" */\n");
+            sb.append("type Event_").append(i).append(" = {\n")
+              .append("    user_id: int64,\n")
+              .append("    tags: [string],\n")
+              .append("    metadata: |{string: string}|\n")
+              .append("}\n");
+        }
+        sb.append("FROM events\n");
+        for (int i = 0; i < blocks; i++) {
+            sb.append("| where level == \"error\" OR score > ").append(i).append(".5\n");
+            sb.append("| put severity := CASE\n")
+              .append("    WHEN level == \"error\" THEN \"high\"\n")
+              .append("    ELSE \"low\"\n")
+              .append("  END\n");
+            sb.append("| put scaled := scale_").append(i).append("(amount), info := {id: ")
+              .append(i).append(", tags: [\"a\", \"b\"]}\n");
+        }
+        sb.append("| summarize total := sum(amount), n := count() by region\n");
+        sb.append("| sort -r total\n");
+        sb.append("| head 10\n");
+        return sb.toString();
+    }
+
+    /**
+     * One record per line, using the value forms from examples/data.sup.
+     */
+    static String syntheticData(int records) {
+        StringBuilder sb = new StringBuilder(records * 200);
+        for (int i = 0; i < records; i++) {
+            sb.append("{id: ").append(i)
+              .append(", name: \"user-").append(i).append('"')
+              .append(", ts: 2024-01-01T00:00:00Z")
+              .append(", elapsed: ").append(i % 60).append("s")
+              .append(", src: 10.0.").append(i % 256).append(".1")
+              .append(", port: ").append(1024 + i % 1000).append("::uint16")
+              .append(", tags: [\"a\", \"b\", \"c\"]")
+              .append(", labels: |{\"host\": \"server").append(i % 10).append("\"}|")
+              .append(", nested: {score: ").append(i % 100).append(".5, ok: true}}\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The records of {@link #syntheticData} as the argument list of a values operator.
+     */
+    static String syntheticValues(int records) {
+        String data = syntheticData(records);
+        return "values\n" + data.substring(0, data.length() - 1).replace("\n", ",\n") + "\n";
+    }
+
+    /**
+     * A deployment-style shell script of about {@code lines} lines mixing super -c strings,
+     * heredocs and unrelated commands, in the shapes of src/test/testData/injection.
+     */
+    static String syntheticScript(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 40);
+        sb.append("#!/bin/bash\nset -euo pipefail\n");
+        for (int i = 0; i < lines / 12; i++) { // 12 lines per block
+            sb.append("# step ").append(i).append('\n');
+            sb.append("echo \"processing batch ").append(i).append("\"\n");
+            sb.append("super -s -f json -c \"from input_").append(i).append(".json | where id > ")
+              .append(i).append(" | head 10\" > out_").append(i).append(".json\n");
+            sb.append("cp \"out_").append(i).append(".json\" \"archive/out_").append(i).append(".json\"\n");
+            sb.append("super -c <<'EOF'\nfrom out_").append(i).append(".json\n| count()\nEOF\n");
+            sb.append("cat <<SUPERSQL | super -\nvalues ").append(i).append("\nSUPERSQL\n");
+            sb.append("grep -c \"error\" log_").append(i).append(".txt || true\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package org.clabs.superdb;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.impl.source.tree.TreeUtil;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.TestFixtureBuilder;
+import com.intellij.testFramework.fixtures.impl.LightTempDirTestFixtureImpl;
+
+/**
+ * Light IntelliJ project for benchmarks, the same environment BasePlatformTestCase gives the tests.
+ * Set it up once per trial; every PSI access goes through a read action since benchmarks
+ * run off the EDT.
+ */
+final class BenchmarkFixture {
+
+    private final CodeInsightTestFixture fixture;
+
+    BenchmarkFixture() {
+        IdeaTestFixtureFactory factory = IdeaTestFixtureFactory.getFixtureFactory();
+        TestFixtureBuilder<IdeaProjectTestFixture> builder =
+                factory.createLightFixtureBuilder(LightProjectDescriptor.EMPTY_PROJECT_DESCRIPTOR, "benchmark");
+        fixture = factory.createCodeInsightFixture(builder.getFixture(), new LightTempDirTestFixtureImpl(true));
+        EdtTestUtil.runInEdtAndWait(fixture::setUp);
+    }
+
+    Project getProject() {
+        return fixture.getProject();
+    }
+
+    /**
+     * Creates a non-physical file. Its tree is built on first access.
+     */
+    PsiFile createFile(BenchmarkCorpus.Sample sample) {
+        FileType type = sample.isData() ? SuperJSONDataFileType.INSTANCE : SuperSQLQueryFileType.INSTANCE;
+        return ReadAction.compute(() ->
+                PsiFileFactory.getInstance(getProject()).createFileFromText(sample.fileName(), type, sample.text()));
+    }
+
+    /**
+     * Creates a non-physical file of {@code type} whatever the sample's name. Unlike
+     * {@link #createFile}, it has a virtual file, as an open editor's file would.
+     */
+    PsiFile createFile(BenchmarkCorpus.Sample sample, FileType type) {
+        return ReadAction.compute(() -> PsiFileFactory.getInstance(getProject())
+                .createFileFromText(sample.fileName(), type, sample.text(), System.currentTimeMillis(), true));
+    }
+
+    /**
+     * Creates a file and builds its complete tree, including any lazy blocks.
+     */
+    PsiFile parseFully(BenchmarkCorpus.Sample sample) {
+        PsiFile file = createFile(sample);
+        ReadAction.run(() -> TreeUtil.ensureParsed(file.getNode()));
+        return file;
+    }
+
+    void tearDown() {
+        EdtTestUtil.runInEdtAndWait(fixture::tearDown);
+    }
+}
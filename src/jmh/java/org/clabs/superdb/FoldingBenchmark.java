@@ -0,0 +1,62 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.folding.FoldingBuilderEx;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.impl.DocumentImpl;
+import com.intellij.psi.PsiFile;
+import org.clabs.superdb.psi.SuperJSONFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SuperSQLFoldingBuilder#buildFoldRegions} over .spq files and
+ * {@link SuperJSONFoldingBuilder#buildFoldRegions} over .sup files, on pre-parsed trees.
+ * {@code values:100000} runs the SuperSQL builder over the same 100k records as {@code data:100000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FoldingBenchmark {
+
+    @Param({"examples", "query:2000", "data:100000", "values:100000"})
+    public String corpus;
+
+    @Param({"false", "true"})
+    public boolean quick;
+
+    private final List<PsiFile> files = new ArrayList<>();
+    private final List<Document> documents = new ArrayList<>();
+    private BenchmarkFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture();
+        for (BenchmarkCorpus.Sample sample : BenchmarkCorpus.load(corpus)) {
+            files.add(fixture.parseFully(sample));
+            documents.add(new DocumentImpl(sample.text()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public void buildFoldRegions(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (int i = 0; i < files.size(); i++) {
+                PsiFile file = files.get(i);
+                FoldingBuilderEx builder = file instanceof SuperJSONFile
+                        ? new SuperJSONFoldingBuilder()
+                        : new SuperSQLFoldingBuilder();
+                blackhole.consume(builder.buildFoldRegions(file, documents.get(i), quick));
+            }
+        });
+    }
+}
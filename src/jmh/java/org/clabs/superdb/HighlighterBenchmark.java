@@ -0,0 +1,48 @@
+package org.clabs.superdb;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.tree.IElementType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SuperSQLSyntaxHighlighter#getTokenHighlights} over a pre-tokenized large file,
+ * isolating the per-token color lookup from lexing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class HighlighterBenchmark {
+
+    @Param({"query:2000", "data:20000"})
+    public String corpus;
+
+    private IElementType[] tokens;
+    private SuperSQLSyntaxHighlighter highlighter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        highlighter = new SuperSQLSyntaxHighlighter();
+        List<IElementType> types = new ArrayList<>();
+        Lexer lexer = new SuperSQLLexerAdapter();
+        for (BenchmarkCorpus.Sample sample : BenchmarkCorpus.load(corpus)) {
+            lexer.start(sample.text());
+            while (lexer.getTokenType() != null) {
+                types.add(lexer.getTokenType());
+                lexer.advance();
+            }
+        }
+        tokens = types.toArray(IElementType[]::new);
+    }
+
+    @Benchmark
+    public void getTokenHighlights(Blackhole blackhole) {
+        for (IElementType token : tokens) {
+            blackhole.consume(highlighter.getTokenHighlights(token));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.clabs.superdb;
+
+import com.intellij.util.text.CharArrayCharSequence;
+import org.clabs.superdb.injection.ShellInjectionSites;
+import org.clabs.superdb.injection.SuperCommandScanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Injection detection for every host of a large generated shell script: each string literal
+ * and heredoc body.
+ * <ul>
+ *   <li>{@code copyAndMatch} - copying the file text per host and running three regexes over
+ *       the preceding 150 chars, as the contributor first did</li>
+ *   <li>{@code scan} - {@link SuperCommandScanner} over the file's chars for each host</li>
+ *   <li>{@code sitesColdPass} - building {@link ShellInjectionSites} once, then looking every host up</li>
+ *   <li>{@code sitesCachedPass} - lookups only, a re-highlight of an unchanged file</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class InjectionScanBenchmark {
+
+    private static final Pattern SUPER_COMMAND_PATTERN = Pattern.compile(
+            "\\bsuper\\s+[^\\n]*?(-c|--command)\\s*$");
+    private static final Pattern SUPER_HEREDOC_PATTERN = Pattern.compile(
+            "\\bsuper\\s+[^\\n]*?(-c|--command)\\s*<<[\"']?\\w+[\"']?\\s*$", Pattern.MULTILINE);
+    private static final Pattern MARKER_HEREDOC_PATTERN = Pattern.compile(
+            "<<[\"']?(SUPERSQL|SUPER|SPQ|ZQ|SUPERDB)[\"']?\\s*$", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+    @Param({"5000"})
+    public int lines;
+
+    private CharSequence text;
+    private int[] hosts;
+    private ShellInjectionSites sites;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String script = BenchmarkCorpus.syntheticScript(lines);
+        // Stands in for the file view provider's contents, which is not a String either
+        text = new CharArrayCharSequence(script.toCharArray());
+        List<Integer> offsets = new ArrayList<>();
+        boolean inString = false;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (c == '"') {
+                if (!inString) {
+                    offsets.add(i);
+                }
+                inString = !inString;
+            } else if (c == '\n' && i > 0 && script.lastIndexOf("<<", i) > script.lastIndexOf('\n', i - 1)) {
+                offsets.add(i + 1);
+            }
+        }
+        hosts = offsets.stream().mapToInt(Integer::intValue).toArray();
+        sites = ShellInjectionSites.scan(text);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        for (int offset : hosts) {
+            blackhole.consume(SuperCommandScanner.isQueryAt(text, offset));
+        }
+    }
+
+    @Benchmark
+    public void copyAndMatch(Blackhole blackhole) {
+        for (int offset : hosts) {
+            String fileText = text.toString();
+            String preceding = fileText.substring(Math.max(0, offset - 150), offset);
+            blackhole.consume(SUPER_COMMAND_PATTERN.matcher(preceding).find()
+                    || SUPER_HEREDOC_PATTERN.matcher(preceding).find()
+                    || MARKER_HEREDOC_PATTERN.matcher(preceding).find());
+        }
+    }
+
+    @Benchmark
+    public void sitesColdPass(Blackhole blackhole) {
+        ShellInjectionSites fresh = ShellInjectionSites.scan(text);
+        for (int offset : hosts) {
+            blackhole.consume(fresh.isQueryAt(offset));
+        }
+    }
+
+    @Benchmark
+    public void sitesCachedPass(Blackhole blackhole) {
+        for (int offset : hosts) {
+            blackhole.consume(sites.isQueryAt(offset));
+        }
+    }
+}
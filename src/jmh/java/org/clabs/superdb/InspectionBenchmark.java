@@ -0,0 +1,73 @@
+package org.clabs.superdb;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiErrorElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SyntaxTraverser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SuperSQLSyntaxInspection} over pre-parsed .spq files:
+ * <ul>
+ *   <li>{@code walk} - a full walk for error elements, what every pass used to cost</li>
+ *   <li>{@code visitor} - the daemon's visitor fed every element, i.e. a full re-inspection</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class InspectionBenchmark {
+
+    @Param({"examples", "query:2000", "query:10000"})
+    public String corpus;
+
+    private final List<PsiFile> files = new ArrayList<>();
+    private BenchmarkFixture fixture;
+    private InspectionManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture();
+        manager = InspectionManager.getInstance(fixture.getProject());
+        for (BenchmarkCorpus.Sample sample : BenchmarkCorpus.load(corpus)) {
+            if (!sample.isData()) {
+                files.add(fixture.parseFully(sample));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public void walk(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (PsiFile file : files) {
+                blackhole.consume(SyntaxTraverser.psiTraverser(file).filter(PsiErrorElement.class).toList());
+            }
+        });
+    }
+
+    @Benchmark
+    public void visitor(Blackhole blackhole) {
+        SuperSQLSyntaxInspection inspection = new SuperSQLSyntaxInspection();
+        ReadAction.run(() -> {
+            for (PsiFile file : files) {
+                ProblemsHolder holder = new ProblemsHolder(manager, file, true);
+                PsiElementVisitor visitor = inspection.buildVisitor(holder, true);
+                SyntaxTraverser.psiTraverser(file).forEach(element -> element.accept(visitor));
+                blackhole.consume(holder.getResultCount());
+            }
+        });
+    }
+}
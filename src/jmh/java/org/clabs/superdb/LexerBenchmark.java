@@ -0,0 +1,56 @@
+package org.clabs.superdb;
+
+import com.intellij.lexer.Lexer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenization throughput of {@link SuperSQLLexerAdapter}.
+ * Besides ops/s, the {@code tokens} and {@code chars} counters report tokens/s and chars/s
+ * (chars/s divided by 2^20 is roughly MB/s for ASCII input).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+
+    @Param({"examples", "query:2000", "data:100000"})
+    public String corpus;
+
+    private List<BenchmarkCorpus.Sample> samples;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long tokens;
+        public long chars;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+            chars = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        samples = BenchmarkCorpus.load(corpus);
+    }
+
+    @Benchmark
+    public void tokenize(Counters counters, Blackhole blackhole) {
+        Lexer lexer = new SuperSQLLexerAdapter();
+        for (BenchmarkCorpus.Sample sample : samples) {
+            lexer.start(sample.text());
+            while (lexer.getTokenType() != null) {
+                blackhole.consume(lexer.getTokenType());
+                counters.tokens++;
+                lexer.advance();
+            }
+            counters.chars += sample.text().length();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.clabs.superdb;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build PSI for each corpus file.
+ * {@code parseTopLevel} only builds the file node's immediate tree (lazy SuperJSON blocks stay
+ * unparsed), {@code parseFully} forces the complete tree the way a full-file inspection would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"examples", "query:2000", "data:100000"})
+    public String corpus;
+
+    private List<BenchmarkCorpus.Sample> samples;
+    private BenchmarkFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        samples = BenchmarkCorpus.load(corpus);
+        fixture = new BenchmarkFixture();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public void parseTopLevel(Blackhole blackhole) {
+        for (BenchmarkCorpus.Sample sample : samples) {
+            PsiFile file = fixture.createFile(sample);
+            blackhole.consume(ReadAction.compute(() -> file.getNode().getLastChildNode()));
+        }
+    }
+
+    @Benchmark
+    public void parseFully(Blackhole blackhole) {
+        for (BenchmarkCorpus.Sample sample : samples) {
+            blackhole.consume(fixture.parseFully(sample));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.clabs.superdb;
+
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.ex.util.LexerEditorHighlighter;
+import com.intellij.openapi.editor.impl.DocumentImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Editor highlighter update latency per keystroke in a ~50k-line .spq file.
+ * <p>
+ * {@code keystroke} types and then deletes one character in the middle of the file, letting
+ * {@link LexerEditorHighlighter} relex incrementally from the nearest restartable token;
+ * {@code fullRelex} re-lexes the whole document for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RelexBenchmark {
+
+    // ~15 lines per synthetic block
+    @Param({"query:3400"})
+    public String corpus;
+
+    private BenchmarkFixture fixture;
+    private DocumentImpl document;
+    private LexerEditorHighlighter highlighter;
+    private int offset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture();
+        String text = BenchmarkCorpus.load(corpus).get(0).text();
+        offset = text.indexOf('\n', text.length() / 2) + 1;
+
+        document = new DocumentImpl(text, true);
+        highlighter = new LexerEditorHighlighter(new SuperSQLSyntaxHighlighter(),
+                EditorColorsManager.getInstance().getGlobalScheme());
+        highlighter.setText(document.getImmutableCharSequence());
+        document.addDocumentListener(highlighter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public LexerEditorHighlighter keystroke() {
+        document.insertString(offset, "x");
+        document.deleteString(offset, offset + 1);
+        return highlighter;
+    }
+
+    @Benchmark
+    public LexerEditorHighlighter fullRelex() {
+        highlighter.setText(document.getImmutableCharSequence());
+        return highlighter;
+    }
+}
@@ -0,0 +1,111 @@
+package org.clabs.superdb;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import org.clabs.superdb.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking a large .sup file for operators and declarations.
+ * <p>
+ * {@code perElement} is the annotator pass as it was before .sup files got their own language:
+ * the file parsed with the SuperSQL grammar, then every element checked for the file's
+ * extension and against the operator and declaration types. {@code fileLevel} is the pass now:
+ * {@link SuperJSONStructureValidator} over the top-level children of the SuperJSON file.
+ * data:500000 is roughly 100 MB of SUP text; expect to need a large -Xmx for it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SuperJSONValidatorBenchmark {
+
+    @Param({"data:100000"})
+    public String corpus;
+
+    private BenchmarkCorpus.Sample sample;
+    private BenchmarkFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sample = BenchmarkCorpus.load(corpus).get(0);
+        fixture = new BenchmarkFixture();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public void perElement(Blackhole blackhole) {
+        PsiFile file = fixture.createFile(sample, SuperSQLQueryFileType.INSTANCE);
+        ReadAction.run(() -> file.accept(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                blackhole.consume(isSupFile(element) && isDisallowedElement(element));
+                super.visitElement(element);
+            }
+        }));
+    }
+
+    @Benchmark
+    public void fileLevel(Blackhole blackhole) {
+        PsiFile file = fixture.createFile(sample);
+        blackhole.consume(ReadAction.compute(() -> SuperJSONStructureValidator.collectViolations(file)));
+    }
+
+    // The checks SuperJSONOperatorAnnotator made for every element before
+
+    private static boolean isSupFile(PsiElement element) {
+        PsiFile psiFile = element.getContainingFile();
+        if (psiFile == null) {
+            return false;
+        }
+        VirtualFile virtualFile = psiFile.getVirtualFile();
+        return virtualFile != null && "sup".equals(virtualFile.getExtension());
+    }
+
+    private static boolean isDisallowedElement(PsiElement element) {
+        return element instanceof SuperSQLDeclaration
+                || element instanceof SuperSQLOperator
+                || element instanceof SuperSQLSqlOp
+                || element instanceof SuperSQLForkOp
+                || element instanceof SuperSQLSwitchOp
+                || element instanceof SuperSQLSearchOp
+                || element instanceof SuperSQLAssertOp
+                || element instanceof SuperSQLSortOp
+                || element instanceof SuperSQLTopOp
+                || element instanceof SuperSQLCutOp
+                || element instanceof SuperSQLDistinctOp
+                || element instanceof SuperSQLDropOp
+                || element instanceof SuperSQLHeadOp
+                || element instanceof SuperSQLTailOp
+                || element instanceof SuperSQLSkipOp
+                || element instanceof SuperSQLWhereOp
+                || element instanceof SuperSQLUniqOp
+                || element instanceof SuperSQLPutOp
+                || element instanceof SuperSQLRenameOp
+                || element instanceof SuperSQLFuseOp
+                || element instanceof SuperSQLJoinOp
+                || element instanceof SuperSQLShapesOp
+                || element instanceof SuperSQLFromOp
+                || element instanceof SuperSQLPassOp
+                || element instanceof SuperSQLExplodeOp
+                || element instanceof SuperSQLMergeOp
+                || element instanceof SuperSQLUnnestOp
+                || element instanceof SuperSQLValuesOp
+                || element instanceof SuperSQLLoadOp
+                || element instanceof SuperSQLOutputOp
+                || element instanceof SuperSQLDebugOp
+                || element instanceof SuperSQLCallOp
+                || element instanceof SuperSQLCountOp
+                || element instanceof SuperSQLAggregation;
+    }
+}
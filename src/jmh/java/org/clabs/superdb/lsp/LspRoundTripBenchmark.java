@@ -0,0 +1,191 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of completion and diagnostics against the stand-in language server
+ * ({@code scripts/standin-lsp.sh}) through {@link DocumentSyncFilter} and the process's stdio
+ * pipes. Requests come from a minimal JSON-RPC client here, not from LSP4IJ, so LSP4IJ's own
+ * message handling and the completion contributor are not measured. Runs offline.
+ * <p>
+ * Each operation edits {@code documents} files at once and waits for every answer:
+ * {@code completion} for the completion lists, {@code diagnostics} for the diagnostics of the
+ * new versions. {@code serverDelayMillis} and {@code completionItems} script the server;
+ * diagnostics also wait out {@code changeDebounceMillis}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LspRoundTripBenchmark {
+
+    @Param({"0", "20"})
+    public int serverDelayMillis;
+
+    @Param({"50", "2000"})
+    public int completionItems;
+
+    @Param({"1", "8"})
+    public int documents;
+
+    @Param({"100"})
+    public int changeDebounceMillis;
+
+    private Process process;
+    private DocumentSyncFilter sync;
+    private OutputStream toServer;
+    private final Map<String, CompletableFuture<JsonObject>> responses = new ConcurrentHashMap<>();
+    private final Map<String, Diagnostics> diagnostics = new ConcurrentHashMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final AtomicInteger version = new AtomicInteger();
+
+    private record Diagnostics(int version, CompletableFuture<JsonObject> published) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String standIn = System.getProperty("superdb.standin");
+        if (standIn == null) {
+            throw new IllegalStateException("-Dsuperdb.standin must point at scripts/standin-lsp.sh");
+        }
+        ProcessBuilder builder = new ProcessBuilder(standIn).redirectError(ProcessBuilder.Redirect.INHERIT);
+        builder.environment().put("STANDIN_LSP_OPTIONS", "delay=" + serverDelayMillis
+                + " completion.items=" + completionItems + " diagnostics.count=5");
+        process = builder.start();
+
+        sync = new DocumentSyncFilter("benchmark", changeDebounceMillis);
+        toServer = sync.toServer(process.getOutputStream());
+        InputStream fromServer = sync.fromServer(process.getInputStream());
+        Thread reader = new Thread(() -> read(fromServer), "lsp-benchmark-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        request("initialize", JsonParser.parseString("{'processId':null,'rootUri':null,'capabilities':{}}"))
+                .get(60, TimeUnit.SECONDS);
+        notify("initialized", new JsonObject());
+        for (int i = 0; i < documents; i++) {
+            notify("textDocument/didOpen", JsonParser.parseString("{'textDocument':{'uri':'" + uri(i)
+                    + "','languageId':'supersql','version':0,'text':'from data.json | '}}"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        request("shutdown", null).get(10, TimeUnit.SECONDS);
+        notify("exit", null);
+        sync.close();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    @Benchmark
+    public List<JsonObject> completion() throws Exception {
+        List<CompletableFuture<JsonObject>> answers = new ArrayList<>();
+        int next = version.incrementAndGet();
+        for (int i = 0; i < documents; i++) {
+            change(i, next);
+            answers.add(request("textDocument/completion", JsonParser.parseString("{'textDocument':{'uri':'"
+                    + uri(i) + "'},'position':{'line':0,'character':" + (16 + next) + "}}")));
+        }
+        return await(answers);
+    }
+
+    @Benchmark
+    public List<JsonObject> diagnostics() throws Exception {
+        List<CompletableFuture<JsonObject>> published = new ArrayList<>();
+        int next = version.incrementAndGet();
+        for (int i = 0; i < documents; i++) {
+            Diagnostics waiting = new Diagnostics(next, new CompletableFuture<>());
+            diagnostics.put(uri(i), waiting);
+            published.add(waiting.published);
+            change(i, next);
+        }
+        return await(published);
+    }
+
+    private void change(int document, int next) throws IOException {
+        notify("textDocument/didChange", JsonParser.parseString("{'textDocument':{'uri':'" + uri(document)
+                + "','version':" + next + "},'contentChanges':[{'range':{'start':{'line':0,'character':"
+                + (16 + next) + "},'end':{'line':0,'character':" + (16 + next) + "}},'text':'x'}]}"));
+    }
+
+    private static String uri(int document) {
+        return "file:///benchmark/query" + document + ".spq";
+    }
+
+    private CompletableFuture<JsonObject> request(String method, JsonElement params) throws IOException {
+        String id = Integer.toString(ids.incrementAndGet());
+        CompletableFuture<JsonObject> response = new CompletableFuture<>();
+        responses.put(id, response);
+        JsonObject message = message(method, params);
+        message.addProperty("id", id);
+        toServer.write(LspFrames.encode(message));
+        return response;
+    }
+
+    private void notify(String method, JsonElement params) throws IOException {
+        toServer.write(LspFrames.encode(message(method, params)));
+    }
+
+    private static JsonObject message(String method, JsonElement params) {
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("method", method);
+        if (params != null) {
+            message.add("params", params);
+        }
+        return message;
+    }
+
+    private static List<JsonObject> await(List<CompletableFuture<JsonObject>> futures) throws Exception {
+        List<JsonObject> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<JsonObject> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private void read(InputStream fromServer) {
+        LspFrames.Decoder decoder = new LspFrames.Decoder();
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            int n;
+            while ((n = fromServer.read(buffer)) >= 0) {
+                decoder.feed(buffer, 0, n, this::received);
+            }
+        } catch (IOException e) {
+            // Server stopped
+        }
+        responses.values().forEach(future -> future.completeExceptionally(new IOException("Server stopped")));
+    }
+
+    private void received(JsonObject message) {
+        String method = LspFrames.method(message);
+        if (method == null) {
+            CompletableFuture<JsonObject> response = responses.remove(message.get("id").getAsString());
+            if (response != null) {
+                response.complete(message);
+            }
+        } else if (method.equals("textDocument/publishDiagnostics")) {
+            JsonObject params = message.getAsJsonObject("params");
+            Diagnostics waiting = diagnostics.get(params.get("uri").getAsString());
+            if (waiting != null && params.has("version") && params.get("version").getAsInt() >= waiting.version) {
+                waiting.published.complete(message);
+            }
+        }
+    }
+}
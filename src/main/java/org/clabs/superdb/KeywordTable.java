@@ -0,0 +1,95 @@
+package org.clabs.superdb;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Immutable word table that is queried with a range of a {@link CharSequence}, typically the
+ * lexer buffer or a node's {@code getChars()}, so lookups never copy the text into a String.
+ * <p>
+ * Keys of a case-insensitive table must be lower case; ASCII case is folded on the fly while
+ * hashing and comparing. The table is open-addressed with a load factor of at most 1/4, which
+ * keeps probe chains to one or two slots.
+ */
+final class KeywordTable<V> {
+
+    private final boolean ignoreCase;
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int minLength;
+    private final int maxLength;
+
+    KeywordTable(@NotNull Map<String, V> entries, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        int capacity = Integer.highestOneBit(Math.max(entries.size(), 1) * 4 - 1) << 1;
+        keys = new String[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (Map.Entry<String, V> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            int slot = hash(key, 0, key.length()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = entry.getValue();
+            min = Math.min(min, key.length());
+            max = Math.max(max, key.length());
+        }
+        minLength = min;
+        maxLength = max;
+    }
+
+    /**
+     * Returns the value for {@code text[start, end)}, or null if it is not in the table.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V get(@NotNull CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < minLength || length > maxLength) {
+            return null;
+        }
+        for (int slot = hash(text, start, end) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (matches(keys[slot], text, start, length)) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    boolean contains(@NotNull CharSequence text) {
+        return get(text, 0, text.length()) != null;
+    }
+
+    private int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            h = 31 * h + (ignoreCase ? fold(c) : c);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private boolean matches(String key, CharSequence text, int start, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(start + i);
+            if (key.charAt(i) != (ignoreCase ? fold(c) : c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
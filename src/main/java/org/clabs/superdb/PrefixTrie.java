@@ -0,0 +1,160 @@
+package org.clabs.superdb;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable prefix trie over a fixed set of words, matched ignoring ASCII case.
+ * <p>
+ * Words are sorted by their case-folded spelling, so the words below any node are one
+ * contiguous run of that array: a lookup walks the prefix and hands out the run, without
+ * visiting the subtree or copying. Nodes are parallel arrays; each node's children sit next
+ * to each other, sorted by label, and are binary-searched.
+ */
+final class PrefixTrie {
+
+    private final String[] words;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    // Words below each node: words[from, to)
+    private final int[] from;
+    private final int[] to;
+
+    PrefixTrie(@NotNull Collection<String> words) {
+        this.words = words.stream()
+                .distinct()
+                .sorted(Comparator.comparing((String word) -> fold(word)).thenComparing(Comparator.naturalOrder()))
+                .toArray(String[]::new);
+        String[] keys = new String[this.words.length];
+        int capacity = 1;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = fold(this.words[i]);
+            capacity += keys[i].length();
+        }
+        Builder builder = new Builder(keys, capacity);
+        builder.build(0, 0, 0, keys.length);
+        labels = Arrays.copyOf(builder.labels, builder.size);
+        firstChild = Arrays.copyOf(builder.firstChild, builder.size);
+        childCount = Arrays.copyOf(builder.childCount, builder.size);
+        from = Arrays.copyOf(builder.from, builder.size);
+        to = Arrays.copyOf(builder.to, builder.size);
+    }
+
+    /**
+     * Words starting with {@code prefix}, in case-folded order.
+     */
+    @NotNull
+    List<String> withPrefix(@NotNull CharSequence prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length() && node >= 0; i++) {
+            node = child(node, fold(prefix.charAt(i)));
+        }
+        if (node < 0) {
+            return List.of();
+        }
+        return Collections.unmodifiableList(Arrays.asList(words).subList(from[node], to[node]));
+    }
+
+    int size() {
+        return words.length;
+    }
+
+    private int child(int node, char label) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle] < label) {
+                low = middle + 1;
+            } else if (labels[middle] > label) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static String fold(String word) {
+        StringBuilder folded = null;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (folded == null) {
+                    folded = new StringBuilder(word);
+                }
+                folded.setCharAt(i, fold(c));
+            }
+        }
+        return folded != null ? folded.toString() : word;
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Lays out the nodes depth first, allocating all children of a node at once.
+     */
+    private static final class Builder {
+        final String[] keys;
+        final char[] labels;
+        final int[] firstChild;
+        final int[] childCount;
+        final int[] from;
+        final int[] to;
+        int size = 1;
+
+        Builder(String[] keys, int capacity) {
+            this.keys = keys;
+            labels = new char[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            from = new int[capacity];
+            to = new int[capacity];
+            to[0] = keys.length;
+        }
+
+        /**
+         * Adds the children of {@code node}, whose words keys[low, high) share their first {@code depth} chars.
+         */
+        void build(int node, int depth, int low, int high) {
+            int start = low;
+            // Sorted order puts a word that ends here before its extensions
+            while (start < high && keys[start].length() == depth) {
+                start++;
+            }
+            int count = 0;
+            for (int i = start; i < high; i = end(i, high, depth)) {
+                count++;
+            }
+            firstChild[node] = size;
+            childCount[node] = count;
+            int child = size;
+            size += count;
+            for (int i = start; i < high; child++) {
+                int end = end(i, high, depth);
+                labels[child] = keys[i].charAt(depth);
+                from[child] = i;
+                to[child] = end;
+                build(child, depth + 1, i, end);
+                i = end;
+            }
+        }
+
+        private int end(int i, int high, int depth) {
+            char label = keys[i].charAt(depth);
+            int end = i + 1;
+            while (end < high && keys[end].charAt(depth) == label) {
+                end++;
+            }
+            return end;
+        }
+    }
+}
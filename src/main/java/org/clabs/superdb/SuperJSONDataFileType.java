@@ -10,7 +10,7 @@ public final class SuperJSONDataFileType extends LanguageFileType {
     public static final SuperJSONDataFileType INSTANCE = new SuperJSONDataFileType();
 
     private SuperJSONDataFileType() {
-        super(SuperSQLLanguage.INSTANCE);
+        super(SuperJSONLanguage.INSTANCE);
     }
 
     @NotNull
@@ -0,0 +1,13 @@
+package org.clabs.superdb;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+public class SuperJSONElementType extends IElementType {
+
+    public SuperJSONElementType(@NotNull @NonNls String debugName) {
+        super(debugName, SuperJSONLanguage.INSTANCE);
+    }
+
+}
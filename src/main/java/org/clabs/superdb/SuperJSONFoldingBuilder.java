@@ -0,0 +1,122 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.folding.FoldingBuilderEx;
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.tree.IElementType;
+import org.clabs.superdb.psi.SuperJSONTypes;
+import org.clabs.superdb.psi.SuperSQLTypes;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds records, arrays, sets, maps and block comments in SuperJSON (.sup) data files.
+ * <p>
+ * Lazy value blocks that have not been parsed yet are folded as a whole without
+ * descending into them, so folding never forces a full parse of a large file. Like
+ * {@link SuperSQLFoldingBuilder}, at most {@link SuperSQLFoldingBuilder#MAX_REGIONS} regions
+ * are built per file.
+ */
+public class SuperJSONFoldingBuilder extends FoldingBuilderEx implements DumbAware {
+
+    @Override
+    public FoldingDescriptor @NotNull [] buildFoldRegions(@NotNull PsiElement root, @NotNull Document document, boolean quick) {
+        List<FoldingDescriptor> descriptors = new ArrayList<>();
+        collect(root.getNode(), descriptors);
+        return descriptors.toArray(FoldingDescriptor.EMPTY_ARRAY);
+    }
+
+    /**
+     * Adds regions for the children of {@code node}, depth first. Returns false once the cap is hit.
+     */
+    private static boolean collect(ASTNode node, List<FoldingDescriptor> descriptors) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            int length = child.getTextLength();
+            if (type == SuperSQLTypes.BLOCK_COMMENT) {
+                if (length > 4 && !add(child, descriptors)) { // /* */
+                    return false;
+                }
+                continue;
+            }
+            if (type == SuperJSONTypes.VALUE_BLOCK) {
+                if (length > 2 && !add(child, descriptors)) {
+                    return false;
+                }
+                if (((LazyParseableElement) child).isParsed()) {
+                    // The block's only child is the container itself, already folded above
+                    ASTNode container = child.getFirstChildNode();
+                    if (container != null && !collect(container, descriptors)) {
+                        return false;
+                    }
+                }
+                continue;
+            }
+            if (isContainer(type) && length > 2 && !add(child, descriptors)) {
+                return false;
+            }
+            if (!collect(child, descriptors)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean add(ASTNode node, List<FoldingDescriptor> descriptors) {
+        descriptors.add(new FoldingDescriptor(node, node.getTextRange()));
+        return descriptors.size() < SuperSQLFoldingBuilder.MAX_REGIONS;
+    }
+
+    private static boolean isContainer(IElementType type) {
+        return type == SuperJSONTypes.RECORD || type == SuperJSONTypes.ARRAY
+                || type == SuperJSONTypes.SET || type == SuperJSONTypes.MAP;
+    }
+
+    @Nullable
+    @Override
+    public String getPlaceholderText(@NotNull ASTNode node) {
+        IElementType type = node.getElementType();
+        if (type == SuperSQLTypes.BLOCK_COMMENT) {
+            return "/* ... */";
+        }
+        if (type == SuperJSONTypes.VALUE_BLOCK) {
+            type = blockContentType(node);
+        }
+        if (type == SuperJSONTypes.RECORD) {
+            return "{...}";
+        }
+        if (type == SuperJSONTypes.ARRAY) {
+            return "[...]";
+        }
+        if (type == SuperJSONTypes.SET) {
+            return "|[...]|";
+        }
+        if (type == SuperJSONTypes.MAP) {
+            return "|{...}|";
+        }
+        return "...";
+    }
+
+    /**
+     * Container type of a value block, taken from its opening bracket so the block isn't parsed.
+     */
+    private static IElementType blockContentType(ASTNode block) {
+        CharSequence text = block.getChars();
+        if (text.length() > 1 && text.charAt(0) == '|') {
+            return text.charAt(1) == '[' ? SuperJSONTypes.SET : SuperJSONTypes.MAP;
+        }
+        return text.length() > 0 && text.charAt(0) == '[' ? SuperJSONTypes.ARRAY : SuperJSONTypes.RECORD;
+    }
+
+    @Override
+    public boolean isCollapsedByDefault(@NotNull ASTNode node) {
+        return false;
+    }
+}
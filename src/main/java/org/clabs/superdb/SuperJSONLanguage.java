@@ -0,0 +1,19 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.Language;
+
+/**
+ * Data-only language for SuperJSON (.sup) files.
+ * <p>
+ * Shares the SuperSQL lexer and highlighter, but is parsed by a flat value grammar
+ * instead of the full query grammar so large data dumps stay cheap to open.
+ */
+public class SuperJSONLanguage extends Language {
+
+    public static final SuperJSONLanguage INSTANCE = new SuperJSONLanguage();
+
+    private SuperJSONLanguage() {
+        super("SuperJSON");
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.ParserDefinition;
+import com.intellij.lang.PsiParser;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IFileElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.clabs.superdb.parser.SuperJSONParser;
+import org.clabs.superdb.psi.SuperJSONFile;
+import org.clabs.superdb.psi.SuperJSONTypes;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Parser definition for SuperJSON (.sup) data files.
+ * Reuses the SuperSQL lexer, but parses with {@link SuperJSONParser}'s flat value grammar.
+ */
+public class SuperJSONParserDefinition implements ParserDefinition {
+
+    public static final IFileElementType FILE = new IFileElementType(SuperJSONLanguage.INSTANCE);
+
+    @NotNull
+    @Override
+    public Lexer createLexer(Project project) {
+        return new SuperSQLLexerAdapter();
+    }
+
+    @NotNull
+    @Override
+    public PsiParser createParser(Project project) {
+        return new SuperJSONParser();
+    }
+
+    @NotNull
+    @Override
+    public IFileElementType getFileNodeType() {
+        return FILE;
+    }
+
+    @NotNull
+    @Override
+    public TokenSet getCommentTokens() {
+        return SuperSQLParserDefinition.COMMENTS;
+    }
+
+    @NotNull
+    @Override
+    public TokenSet getStringLiteralElements() {
+        return SuperSQLParserDefinition.STRINGS;
+    }
+
+    @NotNull
+    @Override
+    public PsiElement createElement(ASTNode node) {
+        return SuperJSONTypes.Factory.createElement(node);
+    }
+
+    @NotNull
+    @Override
+    public PsiFile createFile(@NotNull FileViewProvider viewProvider) {
+        return new SuperJSONFile(viewProvider);
+    }
+}
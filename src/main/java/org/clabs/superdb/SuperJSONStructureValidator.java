@@ -0,0 +1,35 @@
+package org.clabs.superdb;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.clabs.superdb.psi.SuperJSONTypes;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File-level structural check for SuperJSON (.sup) data files.
+ * <p>
+ * The SuperJSON parser only ever produces QUERY_FRAGMENT nodes as direct children of the file,
+ * so one pass over the top-level children finds every disallowed operator or declaration
+ * without descending into (and forcing a parse of) the lazy value blocks.
+ */
+public final class SuperJSONStructureValidator {
+
+    public static final String ERROR_MESSAGE = "Operators and declarations are not allowed in SuperJSON data files";
+
+    private SuperJSONStructureValidator() {
+    }
+
+    @NotNull
+    public static List<PsiElement> collectViolations(@NotNull PsiFile file) {
+        List<PsiElement> violations = new ArrayList<>();
+        for (PsiElement child = file.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNode().getElementType() == SuperJSONTypes.QUERY_FRAGMENT) {
+                violations.add(child);
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,47 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.LazyParseablePsiElement;
+import com.intellij.psi.tree.IReparseableElementType;
+import org.clabs.superdb.parser.SuperJSONParser;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lazy-parseable container value in a SuperJSON file.
+ * <p>
+ * The file parser collapses every top-level record/array/set/map (and large nested ones)
+ * into a single VALUE_BLOCK leaf, so a big .sup file only gets a real tree for the
+ * blocks that are actually looked at. Edits that keep a block's brackets balanced
+ * reparse just that block instead of the whole file.
+ */
+public class SuperJSONValueBlockType extends IReparseableElementType {
+
+    public SuperJSONValueBlockType(@NotNull @NonNls String debugName) {
+        super(debugName, SuperJSONLanguage.INSTANCE);
+    }
+
+    @Override
+    protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(
+                psi.getProject(), chameleon, new SuperSQLLexerAdapter(), getLanguage(), chameleon.getChars());
+        return SuperJSONParser.parseBlock(this, builder).getFirstChildNode();
+    }
+
+    @Override
+    public @Nullable ASTNode createNode(CharSequence text) {
+        return new LazyParseablePsiElement(this, text);
+    }
+
+    @Override
+    public boolean isParsable(@Nullable ASTNode parent, @NotNull CharSequence buffer,
+                              @NotNull Language fileLanguage, @NotNull Project project) {
+        return SuperJSONParser.isBalancedBlock(buffer);
+    }
+}
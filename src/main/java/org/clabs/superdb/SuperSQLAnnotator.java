@@ -1,13 +1,19 @@
 package org.clabs.superdb;
 
+import com.intellij.lang.ASTNode;
 import com.intellij.lang.annotation.AnnotationHolder;
 import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
 import org.clabs.superdb.psi.SuperSQLTypes;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -17,6 +23,10 @@ import java.util.Set;
  * Built-in function names are extracted from brimdata/super:
  * - runtime/sam/expr/function/function.go (scalar functions)
  * - runtime/sam/expr/agg/agg.go (aggregate functions)
+ *
+ * Calls are recognised from the parsed call sites (id_or_call with an argument list, and
+ * agg_func) rather than from every IDENTIFIER, and names are matched case-insensitively
+ * against the node's chars, so annotating a file allocates nothing for non-calls.
  */
 public class SuperSQLAnnotator implements Annotator {
 
@@ -24,7 +34,7 @@ public class SuperSQLAnnotator implements Annotator {
      * Built-in scalar functions from brimdata/super.
      * These are registered in runtime/sam/expr/function/function.go
      */
-    private static final Set<String> SCALAR_FUNCTIONS = Set.of(
+    static final Set<String> SCALAR_FUNCTIONS = Set.of(
             "abs",
             "base64",
             "bucket",
@@ -83,7 +93,7 @@ public class SuperSQLAnnotator implements Annotator {
      * These are registered in runtime/sam/expr/agg/agg.go
      * Note: count, fuse, union, and, or are already lexer keywords
      */
-    private static final Set<String> AGGREGATE_FUNCTIONS = Set.of(
+    static final Set<String> AGGREGATE_FUNCTIONS = Set.of(
             "any",
             "avg",
             "dcount",
@@ -92,30 +102,74 @@ public class SuperSQLAnnotator implements Annotator {
             "collect_map"
     );
 
+    private static final KeywordTable<Boolean> BUILTIN_FUNCTIONS;
+
+    static {
+        Map<String, Boolean> names = new HashMap<>();
+        for (String name : SCALAR_FUNCTIONS) {
+            names.put(name, Boolean.TRUE);
+        }
+        for (String name : AGGREGATE_FUNCTIONS) {
+            names.put(name, Boolean.TRUE);
+        }
+        BUILTIN_FUNCTIONS = new KeywordTable<>(names, true);
+    }
+
+    /**
+     * Rules whose first child is the callee name: {@code id_or_call} (a call only when it has
+     * an argument list) and {@code agg_func}.
+     */
+    private static final TokenSet CALL_SITES = TokenSet.create(
+            SuperSQLTypes.ID_OR_CALL,
+            SuperSQLTypes.AGG_FUNC
+    );
+
     @Override
     public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
-        IElementType elementType = element.getNode().getElementType();
-
-        // Only process identifiers
-        if (!elementType.equals(SuperSQLTypes.IDENTIFIER)) {
-            return;
+        ASTNode name = findBuiltinFunctionName(element.getNode());
+        if (name != null) {
+            holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
+                    .range(name)
+                    .textAttributes(SuperSQLSyntaxHighlighter.FUNCTION_CALL)
+                    .create();
         }
+    }
 
-        String name = element.getText().toLowerCase();
+    /**
+     * Returns the callee IDENTIFIER if {@code node} is a call to a built-in function, else null.
+     */
+    @Nullable
+    static ASTNode findBuiltinFunctionName(@NotNull ASTNode node) {
+        if (!CALL_SITES.contains(node.getElementType())) {
+            return null;
+        }
+        ASTNode name = node.getFirstChildNode();
+        if (name == null || name.getElementType() != SuperSQLTypes.IDENTIFIER) {
+            return null;
+        }
+        ASTNode next = skipWhitespaceAndComments(name.getTreeNext());
+        if (next == null || next.getElementType() != SuperSQLTypes.LPAREN) {
+            return null;
+        }
+        return isBuiltinFunction(name.getChars()) ? name : null;
+    }
 
-        // Check if it's a built-in function
-        if (SCALAR_FUNCTIONS.contains(name) || AGGREGATE_FUNCTIONS.contains(name)) {
-            // Check if followed by '(' to confirm it's a function call
-            PsiElement nextSibling = element.getNextSibling();
-            while (nextSibling != null && nextSibling.getNode().getElementType().toString().equals("WHITE_SPACE")) {
-                nextSibling = nextSibling.getNextSibling();
-            }
+    /**
+     * Case-insensitive check against the built-in scalar and aggregate function names.
+     */
+    static boolean isBuiltinFunction(@NotNull CharSequence name) {
+        return BUILTIN_FUNCTIONS.contains(name);
+    }
 
-            if (nextSibling != null && nextSibling.getNode().getElementType().equals(SuperSQLTypes.LPAREN)) {
-                holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
-                        .textAttributes(SuperSQLSyntaxHighlighter.FUNCTION_CALL)
-                        .create();
+    @Nullable
+    private static ASTNode skipWhitespaceAndComments(@Nullable ASTNode node) {
+        while (node != null) {
+            IElementType type = node.getElementType();
+            if (type != TokenType.WHITE_SPACE && !SuperSQLParserDefinition.COMMENTS.contains(type)) {
+                break;
             }
+            node = node.getTreeNext();
         }
+        return node;
     }
 }
@@ -0,0 +1,143 @@
+package org.clabs.superdb;
+
+import com.intellij.codeInsight.completion.CompletionContributor;
+import com.intellij.codeInsight.completion.CompletionParameters;
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
+import com.intellij.codeInsight.completion.util.ParenthesesInsertHandler;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.clabs.superdb.psi.SuperSQLFile;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.clabs.superdb.psi.SuperSQLTypes;
+import org.clabs.superdb.psi.stubs.SuperSQLDeclarationIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Completes keywords, built-in functions and declared names without the language server.
+ * <p>
+ * Keywords and the functions known to {@link SuperSQLAnnotator} are in a {@link PrefixTrie}
+ * built once. Each file's declarations get a trie cached until the file changes, and the names
+ * in the declaration index one cached until the stub index changes, so completing is a few prefix
+ * walks however large the file. These items are added first and show up at once; the language
+ * server's items follow when it answers, minus the names already offered here.
+ */
+public class SuperSQLCompletionContributor extends CompletionContributor implements DumbAware {
+
+    private static final PrefixTrie KEYWORDS = new PrefixTrie(SuperSQLKeywords.spellings());
+    private static final PrefixTrie FUNCTIONS;
+
+    static {
+        Set<String> functions = new HashSet<>(SuperSQLAnnotator.SCALAR_FUNCTIONS);
+        functions.addAll(SuperSQLAnnotator.AGGREGATE_FUNCTIONS);
+        FUNCTIONS = new PrefixTrie(functions);
+    }
+
+    private static final double DECLARATION_PRIORITY = 3;
+    private static final double FUNCTION_PRIORITY = 2;
+    private static final double KEYWORD_PRIORITY = 1;
+    private static final double INDEXED_PRIORITY = 0;
+
+    /**
+     * Declarations of one file by name, with the keyword that declares each.
+     */
+    private record FileDeclarations(PrefixTrie names, Map<String, String> keywords) {
+    }
+
+    @Override
+    public void fillCompletionVariants(@NotNull CompletionParameters parameters, @NotNull CompletionResultSet result) {
+        PsiFile file = parameters.getOriginalFile();
+        PsiElement position = parameters.getPosition();
+        if (parameters.getCompletionType() != CompletionType.BASIC || !(file instanceof SuperSQLFile)) {
+            return;
+        }
+        IElementType type = position.getNode().getElementType();
+        if (SuperSQLParserDefinition.COMMENTS.contains(type) || SuperSQLParserDefinition.STRINGS.contains(type)
+                || position.getParent() instanceof SuperSQLNamedDeclaration) {
+            // Nothing to offer in comments, strings or the name of a new declaration
+            return;
+        }
+
+        String prefix = result.getPrefixMatcher().getPrefix();
+        Set<String> offered = new HashSet<>();
+        FileDeclarations declarations = declarations(file);
+        for (String name : declarations.names.withPrefix(prefix)) {
+            String keyword = declarations.keywords.get(name);
+            LookupElementBuilder item = LookupElementBuilder.create(name).withTypeText(keyword);
+            if ("fn".equals(keyword)) {
+                item = item.withInsertHandler(ParenthesesInsertHandler.WITH_PARAMETERS);
+            }
+            offer(result, offered, item, DECLARATION_PRIORITY);
+        }
+        // After a dot only field names make sense, and those come from the data
+        if (!isAfterDot(position)) {
+            for (String name : FUNCTIONS.withPrefix(prefix)) {
+                offer(result, offered, LookupElementBuilder.create(name).withTypeText("function")
+                        .withInsertHandler(ParenthesesInsertHandler.WITH_PARAMETERS), FUNCTION_PRIORITY);
+            }
+            for (String keyword : KEYWORDS.withPrefix(prefix)) {
+                offer(result, offered, LookupElementBuilder.create(keyword).withTypeText("keyword").bold(),
+                        KEYWORD_PRIORITY);
+            }
+        }
+        Project project = file.getProject();
+        if (!DumbService.isDumb(project)) {
+            for (String name : indexedNames(project).withPrefix(prefix)) {
+                offer(result, offered, LookupElementBuilder.create(name).withTypeText("declaration"), INDEXED_PRIORITY);
+            }
+        }
+
+        result.runRemainingContributors(parameters, other -> {
+            if (offered.add(other.getLookupElement().getLookupString().toLowerCase(Locale.ROOT))) {
+                result.passResult(other);
+            }
+        });
+    }
+
+    private static void offer(CompletionResultSet result, Set<String> offered, LookupElementBuilder item, double priority) {
+        if (offered.add(item.getLookupString().toLowerCase(Locale.ROOT))) {
+            result.addElement(PrioritizedLookupElement.withPriority(item, priority));
+        }
+    }
+
+    private static boolean isAfterDot(PsiElement position) {
+        PsiElement previous = PsiTreeUtil.prevVisibleLeaf(position);
+        return previous != null && previous.getNode().getElementType() == SuperSQLTypes.DOT;
+    }
+
+    private static FileDeclarations declarations(PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> {
+            Map<String, String> keywords = new HashMap<>();
+            for (SuperSQLNamedDeclaration declaration : PsiTreeUtil.findChildrenOfType(file, SuperSQLNamedDeclaration.class)) {
+                String name = declaration.getName();
+                if (name != null) {
+                    keywords.putIfAbsent(name, declaration.getKeyword());
+                }
+            }
+            return CachedValueProvider.Result.create(new FileDeclarations(new PrefixTrie(keywords.keySet()), keywords), file);
+        });
+    }
+
+    private static PrefixTrie indexedNames(Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () ->
+                CachedValueProvider.Result.create(
+                        new PrefixTrie(StubIndex.getInstance().getAllKeys(SuperSQLDeclarationIndex.KEY, project)),
+                        StubIndex.getInstance().getStubIndexModificationTracker(project)));
+    }
+}
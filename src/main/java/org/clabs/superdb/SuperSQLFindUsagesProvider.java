@@ -0,0 +1,73 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.cacheBuilder.DefaultWordsScanner;
+import com.intellij.lang.cacheBuilder.WordsScanner;
+import com.intellij.lang.findUsages.FindUsagesProvider;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.TokenSet;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.clabs.superdb.psi.SuperSQLTypes;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Find Usages for const, fn, let, op and type declarations.
+ * <p>
+ * The words scanner runs the SuperSQL lexer, so the word index records identifiers as code,
+ * and words in comments and strings separately, instead of splitting raw text. Searches for
+ * a declaration's usages then only open the files whose index holds its name as code.
+ */
+public class SuperSQLFindUsagesProvider implements FindUsagesProvider {
+
+    private static final TokenSet IDENTIFIERS = TokenSet.create(SuperSQLTypes.IDENTIFIER);
+
+    @Nullable
+    @Override
+    public WordsScanner getWordsScanner() {
+        // A new lexer each time: scanners may be used from several indexing threads
+        return new DefaultWordsScanner(new SuperSQLLexerAdapter(), IDENTIFIERS,
+                SuperSQLParserDefinition.COMMENTS, SuperSQLParserDefinition.STRINGS);
+    }
+
+    @Override
+    public boolean canFindUsagesFor(@NotNull PsiElement psiElement) {
+        return psiElement instanceof SuperSQLNamedDeclaration;
+    }
+
+    @Nullable
+    @Override
+    public String getHelpId(@NotNull PsiElement psiElement) {
+        return null;
+    }
+
+    @NotNull
+    @Override
+    public String getType(@NotNull PsiElement element) {
+        if (!(element instanceof SuperSQLNamedDeclaration declaration)) {
+            return "";
+        }
+        return switch (declaration.getKeyword()) {
+            case "const" -> "constant";
+            case "fn" -> "function";
+            case "let" -> "query";
+            case "op" -> "operator";
+            default -> "type";
+        };
+    }
+
+    @NotNull
+    @Override
+    public String getDescriptiveName(@NotNull PsiElement element) {
+        String name = element instanceof SuperSQLNamedDeclaration declaration ? declaration.getName() : null;
+        return name != null ? name : "";
+    }
+
+    @NotNull
+    @Override
+    public String getNodeText(@NotNull PsiElement element, boolean useFullName) {
+        if (element instanceof SuperSQLNamedDeclaration declaration) {
+            return declaration.getKeyword() + " " + getDescriptiveName(element);
+        }
+        return element.getText();
+    }
+}
@@ -4,128 +4,114 @@ import com.intellij.lang.ASTNode;
 import com.intellij.lang.folding.FoldingBuilderEx;
 import com.intellij.lang.folding.FoldingDescriptor;
 import com.intellij.openapi.editor.Document;
-import com.intellij.openapi.editor.FoldingGroup;
 import com.intellij.openapi.project.DumbAware;
-import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.util.PsiTreeUtil;
-import org.clabs.superdb.psi.*;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.clabs.superdb.psi.SuperSQLTypes;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
+/**
+ * Folds block comments, records, arrays, CASE expressions, scope bodies and function
+ * declarations in SuperSQL (.spq) files.
+ * <p>
+ * All kinds are collected in one walk over the AST. A quick pass (used while a file is being
+ * opened) leaves out records, arrays and CASE expressions and does not descend into record
+ * and array literals, which is where large data-heavy queries spend their nodes; the full
+ * pass that follows adds them. No more than {@link #MAX_REGIONS} regions are built per file.
+ */
 public class SuperSQLFoldingBuilder extends FoldingBuilderEx implements DumbAware {
 
+    /**
+     * Upper bound on fold regions per file. Beyond this the editor spends more time
+     * maintaining regions than they are worth; the first ones in document order are kept.
+     */
+    static final int MAX_REGIONS = 5000;
+
+    private static final TokenSet LITERALS = TokenSet.create(
+            SuperSQLTypes.RECORD_EXPR,
+            SuperSQLTypes.ARRAY_EXPR
+    );
+
     @Override
     public FoldingDescriptor @NotNull [] buildFoldRegions(@NotNull PsiElement root, @NotNull Document document, boolean quick) {
         List<FoldingDescriptor> descriptors = new ArrayList<>();
+        collect(root.getNode(), quick, descriptors);
+        return descriptors.toArray(FoldingDescriptor.EMPTY_ARRAY);
+    }
 
-        // Fold block comments
-        Collection<PsiElement> comments = PsiTreeUtil.findChildrenOfType(root, PsiElement.class);
-        for (PsiElement element : comments) {
-            if (element.getNode().getElementType() == SuperSQLTypes.BLOCK_COMMENT) {
-                TextRange range = element.getTextRange();
-                if (range.getLength() > 4) { // /* */
-                    descriptors.add(new FoldingDescriptor(
-                            element.getNode(),
-                            range,
-                            FoldingGroup.newGroup("comment")
-                    ));
+    /**
+     * Adds regions for the children of {@code node}, depth first. Returns false once the cap is hit.
+     */
+    private static boolean collect(ASTNode node, boolean quick, List<FoldingDescriptor> descriptors) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            int minLength = minFoldLength(type, quick);
+            if (minLength >= 0 && child.getTextLength() > minLength) {
+                descriptors.add(new FoldingDescriptor(child, child.getTextRange()));
+                if (descriptors.size() >= MAX_REGIONS) {
+                    return false;
                 }
             }
-        }
-
-        // Fold record expressions { ... }
-        Collection<SuperSQLRecordExpr> records = PsiTreeUtil.findChildrenOfType(root, SuperSQLRecordExpr.class);
-        for (SuperSQLRecordExpr record : records) {
-            TextRange range = record.getTextRange();
-            if (range.getLength() > 2) {
-                descriptors.add(new FoldingDescriptor(
-                        record.getNode(),
-                        range,
-                        FoldingGroup.newGroup("record")
-                ));
+            if (quick && LITERALS.contains(type)) {
+                continue;
             }
-        }
-
-        // Fold array expressions [ ... ]
-        Collection<SuperSQLArrayExpr> arrays = PsiTreeUtil.findChildrenOfType(root, SuperSQLArrayExpr.class);
-        for (SuperSQLArrayExpr array : arrays) {
-            TextRange range = array.getTextRange();
-            if (range.getLength() > 2) {
-                descriptors.add(new FoldingDescriptor(
-                        array.getNode(),
-                        range,
-                        FoldingGroup.newGroup("array")
-                ));
+            if (child.getFirstChildNode() != null && !collect(child, quick, descriptors)) {
+                return false;
             }
         }
+        return true;
+    }
 
-        // Fold CASE expressions
-        Collection<SuperSQLCaseExpr> caseExprs = PsiTreeUtil.findChildrenOfType(root, SuperSQLCaseExpr.class);
-        for (SuperSQLCaseExpr caseExpr : caseExprs) {
-            TextRange range = caseExpr.getTextRange();
-            if (range.getLength() > 10) {
-                descriptors.add(new FoldingDescriptor(
-                        caseExpr.getNode(),
-                        range,
-                        FoldingGroup.newGroup("case")
-                ));
-            }
+    /**
+     * Length a node of this type must exceed to be folded, or -1 if it is not folded in this pass.
+     */
+    private static int minFoldLength(IElementType type, boolean quick) {
+        if (type == SuperSQLTypes.BLOCK_COMMENT) {
+            return 4; // /* */
         }
-
-        // Fold scope bodies ( ... )
-        Collection<SuperSQLScopeBody> scopes = PsiTreeUtil.findChildrenOfType(root, SuperSQLScopeBody.class);
-        for (SuperSQLScopeBody scope : scopes) {
-            TextRange range = scope.getTextRange();
-            if (range.getLength() > 10) {
-                descriptors.add(new FoldingDescriptor(
-                        scope.getNode(),
-                        range,
-                        FoldingGroup.newGroup("scope")
-                ));
-            }
+        if (type == SuperSQLTypes.SCOPE_BODY) {
+            return 10;
         }
-
-        // Fold function declarations
-        Collection<SuperSQLFuncDecl> funcs = PsiTreeUtil.findChildrenOfType(root, SuperSQLFuncDecl.class);
-        for (SuperSQLFuncDecl func : funcs) {
-            TextRange range = func.getTextRange();
-            if (range.getLength() > 20) {
-                descriptors.add(new FoldingDescriptor(
-                        func.getNode(),
-                        range,
-                        FoldingGroup.newGroup("function")
-                ));
-            }
+        if (type == SuperSQLTypes.FUNC_DECL) {
+            return 20;
         }
-
-        return descriptors.toArray(FoldingDescriptor.EMPTY_ARRAY);
+        if (quick) {
+            return -1;
+        }
+        if (type == SuperSQLTypes.RECORD_EXPR || type == SuperSQLTypes.ARRAY_EXPR) {
+            return 2;
+        }
+        if (type == SuperSQLTypes.CASE_EXPR) {
+            return 10;
+        }
+        return -1;
     }
 
     @Nullable
     @Override
     public String getPlaceholderText(@NotNull ASTNode node) {
-        if (node.getElementType() == SuperSQLTypes.BLOCK_COMMENT) {
+        IElementType type = node.getElementType();
+        if (type == SuperSQLTypes.BLOCK_COMMENT) {
             return "/* ... */";
         }
-        String text = node.getText();
-        if (text.startsWith("{")) {
+        if (type == SuperSQLTypes.RECORD_EXPR) {
             return "{...}";
         }
-        if (text.startsWith("[")) {
+        if (type == SuperSQLTypes.ARRAY_EXPR) {
             return "[...]";
         }
-        if (text.startsWith("(")) {
+        if (type == SuperSQLTypes.SCOPE_BODY) {
             return "(...)";
         }
-        if (text.toUpperCase().startsWith("CASE")) {
+        if (type == SuperSQLTypes.CASE_EXPR) {
             return "CASE...END";
         }
-        if (text.toUpperCase().startsWith("FN")) {
+        if (type == SuperSQLTypes.FUNC_DECL) {
             return "fn ...";
         }
         return "...";
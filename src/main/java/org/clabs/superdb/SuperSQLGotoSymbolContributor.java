@@ -0,0 +1,34 @@
+package org.clabs.superdb;
+
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.clabs.superdb.psi.stubs.SuperSQLDeclarationIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Navigate | Symbol for const, fn, let, op and type declarations, served from the stub index.
+ */
+public class SuperSQLGotoSymbolContributor implements ChooseByNameContributorEx {
+
+    @Override
+    public void processNames(@NotNull Processor<? super String> processor,
+                             @NotNull GlobalSearchScope scope,
+                             @Nullable IdFilter filter) {
+        StubIndex.getInstance().processAllKeys(SuperSQLDeclarationIndex.KEY, processor, scope, filter);
+    }
+
+    @Override
+    public void processElementsWithName(@NotNull String name,
+                                        @NotNull Processor<? super NavigationItem> processor,
+                                        @NotNull FindSymbolParameters parameters) {
+        StubIndex.getInstance().processElements(SuperSQLDeclarationIndex.KEY, name, parameters.getProject(),
+                parameters.getSearchScope(), parameters.getIdFilter(), SuperSQLNamedDeclaration.class, processor);
+    }
+}
@@ -0,0 +1,215 @@
+package org.clabs.superdb;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.clabs.superdb.psi.SuperSQLTypes.*;
+
+/**
+ * Keyword lookup for the lexer.
+ * <p>
+ * SuperSQL.flex lexes every word as {IDENTIFIER} and promotes it here, which keeps the
+ * keyword spellings out of the lexer DFA. Most keywords are case-insensitive; primitive
+ * type names (int64, string, ...) are case-sensitive, so "String" stays an identifier.
+ * <p>
+ * Lookups read straight from the lexer buffer through {@link KeywordTable}, so they never allocate.
+ */
+public final class SuperSQLKeywords {
+
+    private static final KeywordTable<IElementType> CASE_INSENSITIVE;
+    private static final KeywordTable<IElementType> CASE_SENSITIVE;
+    private static final List<String> SPELLINGS;
+
+    static {
+        Map<String, IElementType> ci = new LinkedHashMap<>();
+        // SQL keywords
+        keyword(ci, "select", SELECT);
+        keyword(ci, "from", FROM);
+        keyword(ci, "where", WHERE);
+        keyword(ci, "group", GROUP);
+        keyword(ci, "by", BY);
+        keyword(ci, "having", HAVING);
+        keyword(ci, "order", ORDER);
+        keyword(ci, "limit", LIMIT);
+        keyword(ci, "offset", OFFSET);
+        keyword(ci, "union", UNION);
+        keyword(ci, "all", ALL);
+        keyword(ci, "distinct", DISTINCT);
+        keyword(ci, "as", AS);
+        keyword(ci, "at", AT_KW);
+        keyword(ci, "on", ON);
+        keyword(ci, "join", JOIN);
+        keyword(ci, "using", USING);
+        keyword(ci, "left", LEFT);
+        keyword(ci, "right", RIGHT);
+        keyword(ci, "inner", INNER);
+        keyword(ci, "outer", OUTER);
+        keyword(ci, "full", FULL);
+        keyword(ci, "cross", CROSS);
+        keyword(ci, "anti", ANTI);
+        keyword(ci, "with", WITH);
+        keyword(ci, "recursive", RECURSIVE);
+        keyword(ci, "materialized", MATERIALIZED);
+        keyword(ci, "ordinality", ORDINALITY);
+        keyword(ci, "value", VALUE);
+        keyword(ci, "values", VALUES);
+        keyword(ci, "case", CASE);
+        keyword(ci, "when", WHEN);
+        keyword(ci, "then", THEN);
+        keyword(ci, "else", ELSE);
+        keyword(ci, "end", END);
+        keyword(ci, "cast", CAST);
+        keyword(ci, "extract", EXTRACT);
+        keyword(ci, "substring", SUBSTRING);
+        keyword(ci, "position", POSITION);
+        keyword(ci, "date", DATE_KW);
+        keyword(ci, "timestamp", TIMESTAMP_KW);
+        keyword(ci, "interval", INTERVAL);
+        keyword(ci, "for", FOR);
+        keyword(ci, "exists", EXISTS);
+        keyword(ci, "between", BETWEEN);
+        keyword(ci, "like", LIKE);
+        keyword(ci, "into", INTO);
+        keyword(ci, "in", IN);
+        keyword(ci, "is", IS);
+        keyword(ci, "asc", ASC);
+        keyword(ci, "desc", DESC);
+        keyword(ci, "nulls", NULLS);
+        keyword(ci, "first", FIRST);
+        keyword(ci, "last", LAST);
+        keyword(ci, "filter", FILTER);
+
+        // Boolean and logic keywords
+        keyword(ci, "and", AND);
+        keyword(ci, "or", OR);
+        keyword(ci, "not", NOT);
+        keyword(ci, "true", TRUE);
+        keyword(ci, "false", FALSE);
+        keyword(ci, "null", NULL);
+
+        // SuperSQL pipe operators
+        keyword(ci, "fork", FORK);
+        keyword(ci, "switch", SWITCH);
+        keyword(ci, "search", SEARCH);
+        keyword(ci, "assert", ASSERT);
+        keyword(ci, "sort", SORT);
+        keyword(ci, "top", TOP);
+        keyword(ci, "cut", CUT);
+        keyword(ci, "drop", DROP);
+        keyword(ci, "head", HEAD);
+        keyword(ci, "tail", TAIL);
+        keyword(ci, "skip", SKIP_KW);
+        keyword(ci, "uniq", UNIQ);
+        keyword(ci, "put", PUT);
+        keyword(ci, "rename", RENAME);
+        keyword(ci, "fuse", FUSE);
+        keyword(ci, "shapes", SHAPES);
+        keyword(ci, "shape", SHAPE);
+        keyword(ci, "pass", PASS);
+        keyword(ci, "explode", EXPLODE);
+        keyword(ci, "merge", MERGE);
+        keyword(ci, "unnest", UNNEST);
+        keyword(ci, "load", LOAD);
+        keyword(ci, "output", OUTPUT);
+        keyword(ci, "debug", DEBUG);
+        keyword(ci, "count", COUNT);
+        keyword(ci, "call", CALL);
+
+        // Declaration keywords
+        keyword(ci, "const", CONST);
+        keyword(ci, "fn", FN);
+        keyword(ci, "let", LET);
+        keyword(ci, "lambda", LAMBDA);
+        keyword(ci, "op", OP);
+        keyword(ci, "pragma", PRAGMA);
+        keyword(ci, "type", TYPE_KW);
+
+        // Aggregation keywords
+        keyword(ci, "aggregate", AGGREGATE);
+        keyword(ci, "summarize", SUMMARIZE);
+
+        // Switch keywords
+        keyword(ci, "default", DEFAULT);
+
+        // Type keywords
+        keyword(ci, "error", ERROR);
+        keyword(ci, "enum", ENUM);
+        keyword(ci, "map", MAP_KW);
+
+        // PostgreSQL type aliases
+        keyword(ci, "bigint", BIGINT);
+        keyword(ci, "boolean", BOOLEAN);
+        keyword(ci, "bytea", BYTEA);
+        keyword(ci, "char", CHAR);
+        keyword(ci, "cidr", CIDR);
+        keyword(ci, "float", FLOAT);
+        keyword(ci, "int", INT);
+        keyword(ci, "integer", INTEGER);
+        keyword(ci, "inet", INET);
+        keyword(ci, "real", REAL);
+        keyword(ci, "smallint", SMALLINT);
+        keyword(ci, "text", TEXT);
+        keyword(ci, "varchar", VARCHAR);
+
+        Map<String, IElementType> cs = new LinkedHashMap<>();
+        // Primitive types (case sensitive)
+        keyword(cs, "uint8", UINT8);
+        keyword(cs, "uint16", UINT16);
+        keyword(cs, "uint32", UINT32);
+        keyword(cs, "uint64", UINT64);
+        keyword(cs, "int8", INT8);
+        keyword(cs, "int16", INT16);
+        keyword(cs, "int32", INT32);
+        keyword(cs, "int64", INT64);
+        keyword(cs, "float16", FLOAT16);
+        keyword(cs, "float32", FLOAT32);
+        keyword(cs, "float64", FLOAT64);
+        keyword(cs, "bool", BOOL);
+        keyword(cs, "string", STRING_TYPE);
+        keyword(cs, "duration", DURATION_TYPE);
+        keyword(cs, "time", TIME_TYPE);
+        keyword(cs, "bytes", BYTES_TYPE);
+        keyword(cs, "ip", IP_TYPE);
+        keyword(cs, "net", NET_TYPE);
+
+        CASE_INSENSITIVE = new KeywordTable<>(ci, true);
+        CASE_SENSITIVE = new KeywordTable<>(cs, false);
+        List<String> spellings = new ArrayList<>(ci.keySet());
+        spellings.addAll(cs.keySet());
+        SPELLINGS = List.copyOf(spellings);
+    }
+
+    private SuperSQLKeywords() {
+    }
+
+    /**
+     * Returns the keyword token for {@code buffer[start, end)}, or IDENTIFIER if it is not a keyword.
+     */
+    @NotNull
+    public static IElementType lookup(@NotNull CharSequence buffer, int start, int end) {
+        IElementType type = CASE_SENSITIVE.get(buffer, start, end);
+        if (type == null) {
+            type = CASE_INSENSITIVE.get(buffer, start, end);
+        }
+        return type != null ? type : IDENTIFIER;
+    }
+
+    /**
+     * Every keyword as it is usually written, lower case.
+     */
+    @NotNull
+    static List<String> spellings() {
+        return SPELLINGS;
+    }
+
+    private static void keyword(Map<String, IElementType> table, String text, IElementType type) {
+        if (table.put(text, type) != null) {
+            throw new IllegalStateException("Duplicate keyword: " + text);
+        }
+    }
+}
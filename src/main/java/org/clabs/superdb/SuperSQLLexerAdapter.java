@@ -1,10 +1,50 @@
 package org.clabs.superdb;
 
 import com.intellij.lexer.FlexAdapter;
+import org.jetbrains.annotations.NotNull;
 
+/**
+ * Adapts the generated JFlex lexer to IntelliJ's Lexer API.
+ * <p>
+ * The lexer's bash brace depth lives outside yystate(), so getState() packs it above the
+ * lexical state bits and start() unpacks it again. That makes every reported state a valid
+ * restart point, which lets the editor highlighter relex from the edited token instead of
+ * from the start of the file.
+ */
 public class SuperSQLLexerAdapter extends FlexAdapter {
 
+    // JFlex lexical states are small even numbers (YYINITIAL, STRING_STATE, BASH_INTERP)
+    private static final int LEXICAL_STATE_BITS = 4;
+    private static final int LEXICAL_STATE_MASK = (1 << LEXICAL_STATE_BITS) - 1;
+
+    private final SuperSQLLexer lexer;
+    private int tokenStartDepth;
+
     public SuperSQLLexerAdapter() {
-        super(new SuperSQLLexer(null));
+        this(new SuperSQLLexer(null));
+    }
+
+    private SuperSQLLexerAdapter(SuperSQLLexer lexer) {
+        super(lexer);
+        this.lexer = lexer;
+    }
+
+    @Override
+    public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+        super.start(buffer, startOffset, endOffset, initialState & LEXICAL_STATE_MASK);
+        tokenStartDepth = initialState >>> LEXICAL_STATE_BITS;
+        lexer.setBashBraceDepth(tokenStartDepth);
+    }
+
+    @Override
+    public int getState() {
+        return super.getState() | (tokenStartDepth << LEXICAL_STATE_BITS);
+    }
+
+    @Override
+    public void advance() {
+        super.advance();
+        // The flex lexer now sits at the end of the previous token, i.e. the start of the next one
+        tokenStartDepth = lexer.getBashBraceDepth();
     }
 }
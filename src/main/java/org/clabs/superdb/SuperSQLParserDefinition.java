@@ -13,11 +13,13 @@ import com.intellij.psi.tree.TokenSet;
 import org.clabs.superdb.parser.SuperSQLParser;
 import org.clabs.superdb.psi.SuperSQLFile;
 import org.clabs.superdb.psi.SuperSQLTypes;
+import org.clabs.superdb.psi.stubs.SuperSQLStubElementTypes;
 import org.jetbrains.annotations.NotNull;
 
 public class SuperSQLParserDefinition implements ParserDefinition {
 
-    public static final IFileElementType FILE = new IFileElementType(SuperSQLLanguage.INSTANCE);
+    // Stub-based so declarations are indexed by name
+    public static final IFileElementType FILE = SuperSQLStubElementTypes.FILE;
 
     public static final TokenSet COMMENTS = TokenSet.create(
             SuperSQLTypes.LINE_COMMENT,
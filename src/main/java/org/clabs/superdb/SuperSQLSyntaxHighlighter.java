@@ -7,9 +7,12 @@ import com.intellij.openapi.editor.colors.TextAttributesKey;
 import com.intellij.openapi.fileTypes.SyntaxHighlighterBase;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
 import org.clabs.superdb.psi.SuperSQLTypes;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+
 import static com.intellij.openapi.editor.colors.TextAttributesKey.createTextAttributesKey;
 
 public class SuperSQLSyntaxHighlighter extends SyntaxHighlighterBase {
@@ -74,6 +77,149 @@ public class SuperSQLSyntaxHighlighter extends SyntaxHighlighterBase {
     private static final TextAttributesKey[] BAD_CHAR_KEYS = new TextAttributesKey[]{BAD_CHARACTER};
     private static final TextAttributesKey[] EMPTY_KEYS = new TextAttributesKey[0];
 
+    // SQL keywords
+    private static final TokenSet SQL_KEYWORD_TOKENS = TokenSet.create(
+            SuperSQLTypes.SELECT, SuperSQLTypes.FROM, SuperSQLTypes.WHERE,
+            SuperSQLTypes.GROUP, SuperSQLTypes.BY, SuperSQLTypes.HAVING, SuperSQLTypes.ORDER,
+            SuperSQLTypes.LIMIT, SuperSQLTypes.OFFSET, SuperSQLTypes.UNION,
+            SuperSQLTypes.ALL, SuperSQLTypes.DISTINCT, SuperSQLTypes.AS, SuperSQLTypes.AT_KW,
+            SuperSQLTypes.ON, SuperSQLTypes.JOIN, SuperSQLTypes.USING, SuperSQLTypes.LEFT,
+            SuperSQLTypes.RIGHT, SuperSQLTypes.INNER, SuperSQLTypes.OUTER,
+            SuperSQLTypes.FULL, SuperSQLTypes.CROSS, SuperSQLTypes.ANTI, SuperSQLTypes.WITH,
+            SuperSQLTypes.RECURSIVE, SuperSQLTypes.MATERIALIZED, SuperSQLTypes.ORDINALITY,
+            SuperSQLTypes.VALUE, SuperSQLTypes.VALUES, SuperSQLTypes.CASE,
+            SuperSQLTypes.WHEN, SuperSQLTypes.THEN, SuperSQLTypes.ELSE, SuperSQLTypes.END,
+            SuperSQLTypes.CAST, SuperSQLTypes.EXTRACT, SuperSQLTypes.SUBSTRING,
+            SuperSQLTypes.DATE_KW, SuperSQLTypes.TIMESTAMP_KW, SuperSQLTypes.INTERVAL,
+            SuperSQLTypes.FOR, SuperSQLTypes.EXISTS, SuperSQLTypes.BETWEEN,
+            SuperSQLTypes.LIKE, SuperSQLTypes.IN, SuperSQLTypes.IS, SuperSQLTypes.ASC,
+            SuperSQLTypes.DESC, SuperSQLTypes.NULLS, SuperSQLTypes.FIRST, SuperSQLTypes.LAST,
+            SuperSQLTypes.FILTER, SuperSQLTypes.AND, SuperSQLTypes.OR, SuperSQLTypes.NOT
+    );
+
+    // Pipe operators (special styling)
+    private static final TokenSet PIPE_OPERATOR_TOKENS = TokenSet.create(
+            SuperSQLTypes.FORK, SuperSQLTypes.SWITCH, SuperSQLTypes.SEARCH,
+            SuperSQLTypes.ASSERT, SuperSQLTypes.SORT, SuperSQLTypes.TOP, SuperSQLTypes.CUT,
+            SuperSQLTypes.DROP, SuperSQLTypes.HEAD, SuperSQLTypes.TAIL,
+            SuperSQLTypes.SKIP_KW, SuperSQLTypes.UNIQ, SuperSQLTypes.PUT,
+            SuperSQLTypes.RENAME, SuperSQLTypes.FUSE, SuperSQLTypes.SHAPES,
+            SuperSQLTypes.SHAPE, SuperSQLTypes.PASS, SuperSQLTypes.EXPLODE,
+            SuperSQLTypes.MERGE, SuperSQLTypes.UNNEST, SuperSQLTypes.LOAD,
+            SuperSQLTypes.OUTPUT, SuperSQLTypes.DEBUG, SuperSQLTypes.COUNT,
+            SuperSQLTypes.CALL, SuperSQLTypes.AGGREGATE, SuperSQLTypes.SUMMARIZE,
+            SuperSQLTypes.DEFAULT
+    );
+
+    // Declaration keywords
+    private static final TokenSet DECLARATION_KEYWORD_TOKENS = TokenSet.create(
+            SuperSQLTypes.CONST, SuperSQLTypes.FN, SuperSQLTypes.LET, SuperSQLTypes.LAMBDA,
+            SuperSQLTypes.OP, SuperSQLTypes.PRAGMA, SuperSQLTypes.TYPE_KW
+    );
+
+    // Type keywords
+    private static final TokenSet TYPE_KEYWORD_TOKENS = TokenSet.create(
+            SuperSQLTypes.ERROR, SuperSQLTypes.ENUM, SuperSQLTypes.UINT8,
+            SuperSQLTypes.UINT16, SuperSQLTypes.UINT32, SuperSQLTypes.UINT64,
+            SuperSQLTypes.INT8, SuperSQLTypes.INT16, SuperSQLTypes.INT32,
+            SuperSQLTypes.INT64, SuperSQLTypes.FLOAT16, SuperSQLTypes.FLOAT32,
+            SuperSQLTypes.FLOAT64, SuperSQLTypes.BOOL, SuperSQLTypes.STRING_TYPE,
+            SuperSQLTypes.DURATION_TYPE, SuperSQLTypes.TIME_TYPE, SuperSQLTypes.BYTES_TYPE,
+            SuperSQLTypes.IP_TYPE, SuperSQLTypes.NET_TYPE, SuperSQLTypes.BIGINT,
+            SuperSQLTypes.BOOLEAN, SuperSQLTypes.BYTEA, SuperSQLTypes.CHAR,
+            SuperSQLTypes.CIDR, SuperSQLTypes.FLOAT, SuperSQLTypes.INT,
+            SuperSQLTypes.INTEGER, SuperSQLTypes.INET, SuperSQLTypes.MAP_KW,
+            SuperSQLTypes.REAL, SuperSQLTypes.SMALLINT, SuperSQLTypes.TEXT,
+            SuperSQLTypes.VARCHAR
+    );
+
+    // Constants
+    private static final TokenSet CONSTANT_TOKENS = TokenSet.create(
+            SuperSQLTypes.TRUE, SuperSQLTypes.FALSE, SuperSQLTypes.NULL,
+            SuperSQLTypes.NAN_LIT, SuperSQLTypes.INF_LIT
+    );
+
+    // Strings
+    private static final TokenSet STRING_TOKENS = TokenSet.create(
+            SuperSQLTypes.DOUBLE_QUOTED_STRING, SuperSQLTypes.SINGLE_QUOTED_STRING,
+            SuperSQLTypes.BACKTICK_STRING, SuperSQLTypes.RAW_STRING, SuperSQLTypes.FSTRING
+    );
+
+    // Numbers
+    private static final TokenSet NUMBER_TOKENS = TokenSet.create(
+            SuperSQLTypes.INT_LIT, SuperSQLTypes.FLOAT_LIT, SuperSQLTypes.HEX_LIT,
+            SuperSQLTypes.DURATION_LIT, SuperSQLTypes.TIMESTAMP_LIT, SuperSQLTypes.IP4_LIT,
+            SuperSQLTypes.IP6_LIT, SuperSQLTypes.IP4_NET_LIT, SuperSQLTypes.IP6_NET_LIT
+    );
+
+    // Operators
+    private static final TokenSet OPERATOR_TOKENS = TokenSet.create(
+            SuperSQLTypes.PIPE_ARROW, SuperSQLTypes.PIPE, SuperSQLTypes.CONCAT,
+            SuperSQLTypes.CAST_OP, SuperSQLTypes.ASSIGN, SuperSQLTypes.SPREAD,
+            SuperSQLTypes.EQ, SuperSQLTypes.NEQ, SuperSQLTypes.LE, SuperSQLTypes.GE,
+            SuperSQLTypes.LT, SuperSQLTypes.GT, SuperSQLTypes.MATCH, SuperSQLTypes.PLUS,
+            SuperSQLTypes.MINUS, SuperSQLTypes.STAR, SuperSQLTypes.SLASH,
+            SuperSQLTypes.PERCENT, SuperSQLTypes.BANG, SuperSQLTypes.QUESTION,
+            SuperSQLTypes.COLON, SuperSQLTypes.AT, SuperSQLTypes.AMP, SuperSQLTypes.EQUALS
+    );
+
+    // Parentheses
+    private static final TokenSet PARENTHESIS_TOKENS = TokenSet.create(
+            SuperSQLTypes.LPAREN, SuperSQLTypes.RPAREN
+    );
+
+    // Brackets
+    private static final TokenSet BRACKET_TOKENS = TokenSet.create(
+            SuperSQLTypes.LBRACKET, SuperSQLTypes.RBRACKET, SuperSQLTypes.SET_LBRACKET,
+            SuperSQLTypes.SET_RBRACKET
+    );
+
+    // Braces
+    private static final TokenSet BRACE_TOKENS = TokenSet.create(
+            SuperSQLTypes.LBRACE, SuperSQLTypes.RBRACE, SuperSQLTypes.MAP_LBRACE,
+            SuperSQLTypes.MAP_RBRACE
+    );
+
+    // Token index -> highlight keys, built once so getTokenHighlights is a single array lookup
+    private static final TextAttributesKey[][] KEYS_BY_TOKEN_INDEX;
+
+    static {
+        Map<TokenSet, TextAttributesKey[]> groups = Map.ofEntries(
+                Map.entry(TokenSet.create(SuperSQLTypes.LINE_COMMENT), LINE_COMMENT_KEYS),
+                Map.entry(TokenSet.create(SuperSQLTypes.BLOCK_COMMENT), BLOCK_COMMENT_KEYS),
+                Map.entry(SQL_KEYWORD_TOKENS, KEYWORD_KEYS),
+                Map.entry(PIPE_OPERATOR_TOKENS, OPERATOR_KEYWORD_KEYS),
+                Map.entry(DECLARATION_KEYWORD_TOKENS, KEYWORD_KEYS),
+                Map.entry(TYPE_KEYWORD_TOKENS, TYPE_KEYWORD_KEYS),
+                Map.entry(CONSTANT_TOKENS, CONSTANT_KEYS),
+                Map.entry(STRING_TOKENS, STRING_KEYS),
+                Map.entry(NUMBER_TOKENS, NUMBER_KEYS),
+                Map.entry(TokenSet.create(SuperSQLTypes.REGEX), REGEX_KEYS),
+                Map.entry(TokenSet.create(SuperSQLTypes.IDENTIFIER), IDENTIFIER_KEYS),
+                Map.entry(OPERATOR_TOKENS, OPERATION_SIGN_KEYS),
+                Map.entry(PARENTHESIS_TOKENS, PARENTHESES_KEYS),
+                Map.entry(BRACKET_TOKENS, BRACKETS_KEYS),
+                Map.entry(BRACE_TOKENS, BRACES_KEYS),
+                Map.entry(TokenSet.create(SuperSQLTypes.COMMA), COMMA_KEYS),
+                Map.entry(TokenSet.create(SuperSQLTypes.SEMICOLON), SEMICOLON_KEYS),
+                Map.entry(TokenSet.create(SuperSQLTypes.DOT), DOT_KEYS),
+                Map.entry(TokenSet.create(TokenType.BAD_CHARACTER), BAD_CHAR_KEYS)
+        );
+
+        int size = 0;
+        for (TokenSet tokens : groups.keySet()) {
+            for (IElementType type : tokens.getTypes()) {
+                size = Math.max(size, type.getIndex() + 1);
+            }
+        }
+        KEYS_BY_TOKEN_INDEX = new TextAttributesKey[size][];
+        groups.forEach((tokens, keys) -> {
+            for (IElementType type : tokens.getTypes()) {
+                KEYS_BY_TOKEN_INDEX[type.getIndex()] = keys;
+            }
+        });
+    }
+
     @NotNull
     @Override
     public Lexer getHighlightingLexer() {
@@ -82,267 +228,13 @@ public class SuperSQLSyntaxHighlighter extends SyntaxHighlighterBase {
 
     @Override
     public TextAttributesKey @NotNull [] getTokenHighlights(IElementType tokenType) {
-        // Comments
-        if (tokenType.equals(SuperSQLTypes.LINE_COMMENT)) {
-            return LINE_COMMENT_KEYS;
-        }
-        if (tokenType.equals(SuperSQLTypes.BLOCK_COMMENT)) {
-            return BLOCK_COMMENT_KEYS;
-        }
-
-        // SQL Keywords
-        if (tokenType.equals(SuperSQLTypes.SELECT) ||
-            tokenType.equals(SuperSQLTypes.FROM) ||
-            tokenType.equals(SuperSQLTypes.WHERE) ||
-            tokenType.equals(SuperSQLTypes.GROUP) ||
-            tokenType.equals(SuperSQLTypes.BY) ||
-            tokenType.equals(SuperSQLTypes.HAVING) ||
-            tokenType.equals(SuperSQLTypes.ORDER) ||
-            tokenType.equals(SuperSQLTypes.LIMIT) ||
-            tokenType.equals(SuperSQLTypes.OFFSET) ||
-            tokenType.equals(SuperSQLTypes.UNION) ||
-            tokenType.equals(SuperSQLTypes.ALL) ||
-            tokenType.equals(SuperSQLTypes.DISTINCT) ||
-            tokenType.equals(SuperSQLTypes.AS) ||
-            tokenType.equals(SuperSQLTypes.AT_KW) ||
-            tokenType.equals(SuperSQLTypes.ON) ||
-            tokenType.equals(SuperSQLTypes.JOIN) ||
-            tokenType.equals(SuperSQLTypes.USING) ||
-            tokenType.equals(SuperSQLTypes.LEFT) ||
-            tokenType.equals(SuperSQLTypes.RIGHT) ||
-            tokenType.equals(SuperSQLTypes.INNER) ||
-            tokenType.equals(SuperSQLTypes.OUTER) ||
-            tokenType.equals(SuperSQLTypes.FULL) ||
-            tokenType.equals(SuperSQLTypes.CROSS) ||
-            tokenType.equals(SuperSQLTypes.ANTI) ||
-            tokenType.equals(SuperSQLTypes.WITH) ||
-            tokenType.equals(SuperSQLTypes.RECURSIVE) ||
-            tokenType.equals(SuperSQLTypes.MATERIALIZED) ||
-            tokenType.equals(SuperSQLTypes.ORDINALITY) ||
-            tokenType.equals(SuperSQLTypes.VALUE) ||
-            tokenType.equals(SuperSQLTypes.VALUES) ||
-            tokenType.equals(SuperSQLTypes.CASE) ||
-            tokenType.equals(SuperSQLTypes.WHEN) ||
-            tokenType.equals(SuperSQLTypes.THEN) ||
-            tokenType.equals(SuperSQLTypes.ELSE) ||
-            tokenType.equals(SuperSQLTypes.END) ||
-            tokenType.equals(SuperSQLTypes.CAST) ||
-            tokenType.equals(SuperSQLTypes.EXTRACT) ||
-            tokenType.equals(SuperSQLTypes.SUBSTRING) ||
-            tokenType.equals(SuperSQLTypes.DATE_KW) ||
-            tokenType.equals(SuperSQLTypes.TIMESTAMP_KW) ||
-            tokenType.equals(SuperSQLTypes.INTERVAL) ||
-            tokenType.equals(SuperSQLTypes.FOR) ||
-            tokenType.equals(SuperSQLTypes.EXISTS) ||
-            tokenType.equals(SuperSQLTypes.BETWEEN) ||
-            tokenType.equals(SuperSQLTypes.LIKE) ||
-            tokenType.equals(SuperSQLTypes.IN) ||
-            tokenType.equals(SuperSQLTypes.IS) ||
-            tokenType.equals(SuperSQLTypes.ASC) ||
-            tokenType.equals(SuperSQLTypes.DESC) ||
-            tokenType.equals(SuperSQLTypes.NULLS) ||
-            tokenType.equals(SuperSQLTypes.FIRST) ||
-            tokenType.equals(SuperSQLTypes.LAST) ||
-            tokenType.equals(SuperSQLTypes.FILTER) ||
-            tokenType.equals(SuperSQLTypes.AND) ||
-            tokenType.equals(SuperSQLTypes.OR) ||
-            tokenType.equals(SuperSQLTypes.NOT)) {
-            return KEYWORD_KEYS;
-        }
-
-        // Pipe Operators (special styling)
-        if (tokenType.equals(SuperSQLTypes.FORK) ||
-            tokenType.equals(SuperSQLTypes.SWITCH) ||
-            tokenType.equals(SuperSQLTypes.SEARCH) ||
-            tokenType.equals(SuperSQLTypes.ASSERT) ||
-            tokenType.equals(SuperSQLTypes.SORT) ||
-            tokenType.equals(SuperSQLTypes.TOP) ||
-            tokenType.equals(SuperSQLTypes.CUT) ||
-            tokenType.equals(SuperSQLTypes.DROP) ||
-            tokenType.equals(SuperSQLTypes.HEAD) ||
-            tokenType.equals(SuperSQLTypes.TAIL) ||
-            tokenType.equals(SuperSQLTypes.SKIP_KW) ||
-            tokenType.equals(SuperSQLTypes.UNIQ) ||
-            tokenType.equals(SuperSQLTypes.PUT) ||
-            tokenType.equals(SuperSQLTypes.RENAME) ||
-            tokenType.equals(SuperSQLTypes.FUSE) ||
-            tokenType.equals(SuperSQLTypes.SHAPES) ||
-            tokenType.equals(SuperSQLTypes.SHAPE) ||
-            tokenType.equals(SuperSQLTypes.PASS) ||
-            tokenType.equals(SuperSQLTypes.EXPLODE) ||
-            tokenType.equals(SuperSQLTypes.MERGE) ||
-            tokenType.equals(SuperSQLTypes.UNNEST) ||
-            tokenType.equals(SuperSQLTypes.LOAD) ||
-            tokenType.equals(SuperSQLTypes.OUTPUT) ||
-            tokenType.equals(SuperSQLTypes.DEBUG) ||
-            tokenType.equals(SuperSQLTypes.COUNT) ||
-            tokenType.equals(SuperSQLTypes.CALL) ||
-            tokenType.equals(SuperSQLTypes.AGGREGATE) ||
-            tokenType.equals(SuperSQLTypes.SUMMARIZE) ||
-            tokenType.equals(SuperSQLTypes.DEFAULT)) {
-            return OPERATOR_KEYWORD_KEYS;
-        }
-
-        // Declaration Keywords
-        if (tokenType.equals(SuperSQLTypes.CONST) ||
-            tokenType.equals(SuperSQLTypes.FN) ||
-            tokenType.equals(SuperSQLTypes.LET) ||
-            tokenType.equals(SuperSQLTypes.LAMBDA) ||
-            tokenType.equals(SuperSQLTypes.OP) ||
-            tokenType.equals(SuperSQLTypes.PRAGMA) ||
-            tokenType.equals(SuperSQLTypes.TYPE_KW)) {
-            return KEYWORD_KEYS;
-        }
-
-        // Type Keywords
-        if (tokenType.equals(SuperSQLTypes.ERROR) ||
-            tokenType.equals(SuperSQLTypes.ENUM) ||
-            tokenType.equals(SuperSQLTypes.UINT8) ||
-            tokenType.equals(SuperSQLTypes.UINT16) ||
-            tokenType.equals(SuperSQLTypes.UINT32) ||
-            tokenType.equals(SuperSQLTypes.UINT64) ||
-            tokenType.equals(SuperSQLTypes.INT8) ||
-            tokenType.equals(SuperSQLTypes.INT16) ||
-            tokenType.equals(SuperSQLTypes.INT32) ||
-            tokenType.equals(SuperSQLTypes.INT64) ||
-            tokenType.equals(SuperSQLTypes.FLOAT16) ||
-            tokenType.equals(SuperSQLTypes.FLOAT32) ||
-            tokenType.equals(SuperSQLTypes.FLOAT64) ||
-            tokenType.equals(SuperSQLTypes.BOOL) ||
-            tokenType.equals(SuperSQLTypes.STRING_TYPE) ||
-            tokenType.equals(SuperSQLTypes.DURATION_TYPE) ||
-            tokenType.equals(SuperSQLTypes.TIME_TYPE) ||
-            tokenType.equals(SuperSQLTypes.BYTES_TYPE) ||
-            tokenType.equals(SuperSQLTypes.IP_TYPE) ||
-            tokenType.equals(SuperSQLTypes.NET_TYPE) ||
-            tokenType.equals(SuperSQLTypes.BIGINT) ||
-            tokenType.equals(SuperSQLTypes.BOOLEAN) ||
-            tokenType.equals(SuperSQLTypes.BYTEA) ||
-            tokenType.equals(SuperSQLTypes.CHAR) ||
-            tokenType.equals(SuperSQLTypes.CIDR) ||
-            tokenType.equals(SuperSQLTypes.FLOAT) ||
-            tokenType.equals(SuperSQLTypes.INT) ||
-            tokenType.equals(SuperSQLTypes.INTEGER) ||
-            tokenType.equals(SuperSQLTypes.INET) ||
-            tokenType.equals(SuperSQLTypes.MAP_KW) ||
-            tokenType.equals(SuperSQLTypes.REAL) ||
-            tokenType.equals(SuperSQLTypes.SMALLINT) ||
-            tokenType.equals(SuperSQLTypes.TEXT) ||
-            tokenType.equals(SuperSQLTypes.VARCHAR)) {
-            return TYPE_KEYWORD_KEYS;
-        }
-
-        // Constants
-        if (tokenType.equals(SuperSQLTypes.TRUE) ||
-            tokenType.equals(SuperSQLTypes.FALSE) ||
-            tokenType.equals(SuperSQLTypes.NULL) ||
-            tokenType.equals(SuperSQLTypes.NAN_LIT) ||
-            tokenType.equals(SuperSQLTypes.INF_LIT)) {
-            return CONSTANT_KEYS;
-        }
-
-        // Strings
-        if (tokenType.equals(SuperSQLTypes.DOUBLE_QUOTED_STRING) ||
-            tokenType.equals(SuperSQLTypes.SINGLE_QUOTED_STRING) ||
-            tokenType.equals(SuperSQLTypes.BACKTICK_STRING) ||
-            tokenType.equals(SuperSQLTypes.RAW_STRING) ||
-            tokenType.equals(SuperSQLTypes.FSTRING)) {
-            return STRING_KEYS;
-        }
-
-        // Numbers
-        if (tokenType.equals(SuperSQLTypes.INT_LIT) ||
-            tokenType.equals(SuperSQLTypes.FLOAT_LIT) ||
-            tokenType.equals(SuperSQLTypes.HEX_LIT) ||
-            tokenType.equals(SuperSQLTypes.DURATION_LIT) ||
-            tokenType.equals(SuperSQLTypes.TIMESTAMP_LIT) ||
-            tokenType.equals(SuperSQLTypes.IP4_LIT) ||
-            tokenType.equals(SuperSQLTypes.IP6_LIT) ||
-            tokenType.equals(SuperSQLTypes.IP4_NET_LIT) ||
-            tokenType.equals(SuperSQLTypes.IP6_NET_LIT)) {
-            return NUMBER_KEYS;
-        }
-
-        // Regex
-        if (tokenType.equals(SuperSQLTypes.REGEX)) {
-            return REGEX_KEYS;
+        int index = tokenType.getIndex();
+        if (index < KEYS_BY_TOKEN_INDEX.length) {
+            TextAttributesKey[] keys = KEYS_BY_TOKEN_INDEX[index];
+            if (keys != null) {
+                return keys;
+            }
         }
-
-        // Identifier
-        if (tokenType.equals(SuperSQLTypes.IDENTIFIER)) {
-            return IDENTIFIER_KEYS;
-        }
-
-        // Operators
-        if (tokenType.equals(SuperSQLTypes.PIPE_ARROW) ||
-            tokenType.equals(SuperSQLTypes.PIPE) ||
-            tokenType.equals(SuperSQLTypes.CONCAT) ||
-            tokenType.equals(SuperSQLTypes.CAST_OP) ||
-            tokenType.equals(SuperSQLTypes.ASSIGN) ||
-            tokenType.equals(SuperSQLTypes.SPREAD) ||
-            tokenType.equals(SuperSQLTypes.EQ) ||
-            tokenType.equals(SuperSQLTypes.NEQ) ||
-            tokenType.equals(SuperSQLTypes.LE) ||
-            tokenType.equals(SuperSQLTypes.GE) ||
-            tokenType.equals(SuperSQLTypes.LT) ||
-            tokenType.equals(SuperSQLTypes.GT) ||
-            tokenType.equals(SuperSQLTypes.MATCH) ||
-            tokenType.equals(SuperSQLTypes.PLUS) ||
-            tokenType.equals(SuperSQLTypes.MINUS) ||
-            tokenType.equals(SuperSQLTypes.STAR) ||
-            tokenType.equals(SuperSQLTypes.SLASH) ||
-            tokenType.equals(SuperSQLTypes.PERCENT) ||
-            tokenType.equals(SuperSQLTypes.BANG) ||
-            tokenType.equals(SuperSQLTypes.QUESTION) ||
-            tokenType.equals(SuperSQLTypes.COLON) ||
-            tokenType.equals(SuperSQLTypes.AT) ||
-            tokenType.equals(SuperSQLTypes.AMP) ||
-            tokenType.equals(SuperSQLTypes.EQUALS)) {
-            return OPERATION_SIGN_KEYS;
-        }
-
-        // Parentheses
-        if (tokenType.equals(SuperSQLTypes.LPAREN) ||
-            tokenType.equals(SuperSQLTypes.RPAREN)) {
-            return PARENTHESES_KEYS;
-        }
-
-        // Brackets
-        if (tokenType.equals(SuperSQLTypes.LBRACKET) ||
-            tokenType.equals(SuperSQLTypes.RBRACKET) ||
-            tokenType.equals(SuperSQLTypes.SET_LBRACKET) ||
-            tokenType.equals(SuperSQLTypes.SET_RBRACKET)) {
-            return BRACKETS_KEYS;
-        }
-
-        // Braces
-        if (tokenType.equals(SuperSQLTypes.LBRACE) ||
-            tokenType.equals(SuperSQLTypes.RBRACE) ||
-            tokenType.equals(SuperSQLTypes.MAP_LBRACE) ||
-            tokenType.equals(SuperSQLTypes.MAP_RBRACE)) {
-            return BRACES_KEYS;
-        }
-
-        // Comma
-        if (tokenType.equals(SuperSQLTypes.COMMA)) {
-            return COMMA_KEYS;
-        }
-
-        // Semicolon
-        if (tokenType.equals(SuperSQLTypes.SEMICOLON)) {
-            return SEMICOLON_KEYS;
-        }
-
-        // Dot
-        if (tokenType.equals(SuperSQLTypes.DOT)) {
-            return DOT_KEYS;
-        }
-
-        // Bad character
-        if (tokenType.equals(TokenType.BAD_CHARACTER)) {
-            return BAD_CHAR_KEYS;
-        }
-
         return EMPTY_KEYS;
     }
 }
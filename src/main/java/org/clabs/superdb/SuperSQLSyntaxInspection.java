@@ -3,20 +3,20 @@ package org.clabs.superdb;
 import com.intellij.codeInspection.*;
 import com.intellij.lang.Language;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiErrorElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Inspection that reports SuperSQL syntax errors under the "SuperDB" inspection group.
  * This wraps parser errors (PsiErrorElement) so they appear in a dedicated category
  * instead of the generic "General > Annotator" category.
  *
- * Works for both standalone .spq/.sup files and injected SuperSQL in shell scripts.
+ * Works for both standalone .spq files and injected SuperSQL in shell scripts.
+ *
+ * The inspection only builds a visitor that reports the error elements it is handed, so
+ * re-highlighting after an edit visits the re-inspected ranges rather than the whole file.
  */
 public class SuperSQLSyntaxInspection extends LocalInspectionTool {
 
@@ -41,39 +41,31 @@ public class SuperSQLSyntaxInspection extends LocalInspectionTool {
     }
 
     @Override
-    public ProblemDescriptor @NotNull [] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
-        // Check if file is SuperDB language (handles both standalone and injected)
-        Language language = file.getLanguage();
-        if (!"SuperDB".equals(language.getID())) {
-            return ProblemDescriptor.EMPTY_ARRAY;
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        if (!isSuperDB(holder.getFile())) {
+            return PsiElementVisitor.EMPTY_VISITOR;
         }
-
-        List<ProblemDescriptor> problems = new ArrayList<>();
-
-        file.accept(new PsiRecursiveElementWalkingVisitor() {
+        // The daemon only feeds the visitor elements of the ranges it is re-inspecting
+        return new PsiElementVisitor() {
             @Override
-            public void visitElement(@NotNull PsiElement element) {
-                if (element instanceof PsiErrorElement errorElement) {
-                    String errorDescription = errorElement.getErrorDescription();
-                    PsiElement highlightElement = errorElement;
-
-                    // Try to highlight the previous sibling if error element has no text
-                    if (errorElement.getTextLength() == 0 && errorElement.getPrevSibling() != null) {
-                        highlightElement = errorElement.getPrevSibling();
-                    }
-
-                    problems.add(manager.createProblemDescriptor(
-                            highlightElement,
-                            errorDescription,
-                            (LocalQuickFix) null,
-                            ProblemHighlightType.ERROR,
-                            isOnTheFly
-                    ));
-                }
-                super.visitElement(element);
+            public void visitErrorElement(@NotNull PsiErrorElement element) {
+                holder.registerProblem(highlightElement(element), element.getErrorDescription(),
+                        ProblemHighlightType.ERROR);
             }
-        });
+        };
+    }
+
+    // Handles both standalone files and SuperSQL injected into shell scripts
+    private static boolean isSuperDB(PsiFile file) {
+        Language language = file.getLanguage();
+        return "SuperDB".equals(language.getID());
+    }
 
-        return problems.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    // Highlight the previous sibling if the error element has no text
+    private static PsiElement highlightElement(PsiErrorElement error) {
+        if (error.getTextLength() == 0 && error.getPrevSibling() != null) {
+            return error.getPrevSibling();
+        }
+        return error;
     }
 }
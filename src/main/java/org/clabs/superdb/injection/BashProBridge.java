@@ -0,0 +1,168 @@
+package org.clabs.superdb.injection;
+
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * BashSupport Pro PSI classes and methods, resolved once through the plugin's classloader.
+ * <p>
+ * BashSupport Pro is a paid plugin, so it is only reached reflectively. Methods are bound to
+ * {@link MethodHandle}s adapted to {@code (PsiElement)Object}, which the JIT can inline, instead
+ * of being looked up with {@code getMethod} on every call. An instance is immutable once built
+ * and can be shared between threads without locking.
+ */
+final class BashProBridge {
+
+    private static final Logger LOG = Logger.getInstance(BashProBridge.class);
+
+    private static final String PLUGIN_ID = "pro.bashsupport";
+
+    // BashSupport Pro class names
+    private static final String BASH_STRING_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.BashString";
+    private static final String BASH_HEREDOC_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.heredoc.BashHereDoc";
+    private static final String BASH_COMMAND_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.command.BashCommand";
+    private static final String BASH_HEREDOC_START_MARKER_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.heredoc.BashHereDocStartMarker";
+    private static final String BASH_HEREDOC_END_MARKER_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.heredoc.BashHereDocEndMarker";
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, PsiElement.class);
+
+    /**
+     * Bridge used when BashSupport Pro is not installed.
+     */
+    static final BashProBridge UNAVAILABLE = new BashProBridge(null, null, null, null, null, null, null);
+
+    @Nullable final Class<? extends PsiElement> stringClass;
+    @Nullable final Class<? extends PsiElement> heredocClass;
+    @Nullable final Class<?> commandClass;
+    @Nullable final Class<?> heredocStartMarkerClass;
+    @Nullable final Class<?> heredocEndMarkerClass;
+    @Nullable private final MethodHandle referencedCommandName;
+    @Nullable private final MethodHandle parameters;
+
+    private BashProBridge(@Nullable Class<? extends PsiElement> stringClass,
+                          @Nullable Class<? extends PsiElement> heredocClass,
+                          @Nullable Class<?> commandClass,
+                          @Nullable Class<?> heredocStartMarkerClass,
+                          @Nullable Class<?> heredocEndMarkerClass,
+                          @Nullable MethodHandle referencedCommandName,
+                          @Nullable MethodHandle parameters) {
+        this.stringClass = stringClass;
+        this.heredocClass = heredocClass;
+        this.commandClass = commandClass;
+        this.heredocStartMarkerClass = heredocStartMarkerClass;
+        this.heredocEndMarkerClass = heredocEndMarkerClass;
+        this.referencedCommandName = referencedCommandName;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Loads the BashSupport Pro classes and binds their methods, or returns {@link #UNAVAILABLE}.
+     */
+    @NotNull
+    static BashProBridge resolve() {
+        // Get BashSupport Pro's classloader - required due to plugin classloader isolation
+        IdeaPluginDescriptor bashProPlugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        if (bashProPlugin == null) {
+            LOG.info("SuperSQLBashProInjector: BashSupport Pro plugin not found");
+            return UNAVAILABLE;
+        }
+
+        ClassLoader loader = bashProPlugin.getClassLoader();
+        if (loader == null) {
+            LOG.info("SuperSQLBashProInjector: BashSupport Pro classloader not available");
+            return UNAVAILABLE;
+        }
+
+        try {
+            Class<?> stringClass = Class.forName(BASH_STRING_CLASS, true, loader);
+            Class<?> heredocClass = Class.forName(BASH_HEREDOC_CLASS, true, loader);
+            Class<?> commandClass = Class.forName(BASH_COMMAND_CLASS, true, loader);
+            BashProBridge bridge = new BashProBridge(
+                    stringClass.asSubclass(PsiElement.class),
+                    heredocClass.asSubclass(PsiElement.class),
+                    commandClass,
+                    // These might not exist in all versions
+                    findClass(BASH_HEREDOC_START_MARKER_CLASS, loader),
+                    findClass(BASH_HEREDOC_END_MARKER_CLASS, loader),
+                    bind(commandClass, "getReferencedCommandName"),
+                    bind(commandClass, "parameters"));
+            LOG.info("SuperSQLBashProInjector initialized successfully. BashString=" + stringClass +
+                    ", BashHereDoc=" + heredocClass + ", BashCommand=" + commandClass);
+            return bridge;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            LOG.info("SuperSQLBashProInjector: BashSupport Pro classes not available - " + e.getMessage());
+            return UNAVAILABLE;
+        }
+    }
+
+    boolean isAvailable() {
+        return stringClass != null;
+    }
+
+    /**
+     * BashCommand.getReferencedCommandName(), or null if it can't be called.
+     */
+    @Nullable
+    String getReferencedCommandName(@NotNull PsiElement command) {
+        return invoke(referencedCommandName, command) instanceof String name ? name : null;
+    }
+
+    /**
+     * BashCommand.parameters(), or null if it can't be called.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    List<PsiElement> getParameters(@NotNull PsiElement command) {
+        return invoke(parameters, command) instanceof List<?> list ? (List<PsiElement>) list : null;
+    }
+
+    @Nullable
+    private static Object invoke(@Nullable MethodHandle handle, @NotNull PsiElement target) {
+        if (handle == null) {
+            return null;
+        }
+        try {
+            return (Object) handle.invokeExact(target);
+        } catch (ProcessCanceledException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // Wrong receiver type or a failure inside BashSupport Pro
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Class<?> findClass(String name, ClassLoader loader) {
+        try {
+            return Class.forName(name, true, loader);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Binds a public no-arg method of {@code owner} as {@code (PsiElement)Object}, or returns null.
+     */
+    @Nullable
+    private static MethodHandle bind(Class<?> owner, String name) {
+        try {
+            Method method = owner.getMethod(name);
+            return MethodHandles.publicLookup().unreflect(method).asType(GETTER);
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            LOG.info("SuperSQLBashProInjector: " + owner.getSimpleName() + "." + name + "() not available - " + e.getMessage());
+            return null;
+        }
+    }
+}
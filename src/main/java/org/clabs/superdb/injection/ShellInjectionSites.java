@@ -0,0 +1,182 @@
+package org.clabs.superdb.injection;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Where SuperSQL may be injected in one shell script, cached per file until its PSI changes.
+ * <p>
+ * One forward pass over the script finds every {@code -c}/{@code --command} flag and every
+ * {@code <<MARKER} redirect, and records the offsets right after them at which a host would be
+ * accepted by {@link SuperCommandScanner}. Looking a host up is then a binary search instead of
+ * a fresh scan on every daemon pass. Decisions that also need the host's PSI are memoized by
+ * host text range in the same cached value.
+ */
+public final class ShellInjectionSites {
+
+    private static final ShellInjectionSites NONE = new ShellInjectionSites(new int[0], new int[0]);
+
+    // Sorted, non-overlapping inclusive ranges of offsets at which a host holds a query
+    private final int[] starts;
+    private final int[] ends;
+    private final Map<TextRange, Boolean> hostDecisions = new ConcurrentHashMap<>();
+
+    private ShellInjectionSites(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Sites of {@code file}, computed on first use and dropped when the file changes.
+     */
+    @NotNull
+    public static ShellInjectionSites of(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () ->
+                CachedValueProvider.Result.create(scan(file.getViewProvider().getContents()), file));
+    }
+
+    /**
+     * Finds the query sites of a whole script in one pass.
+     */
+    @NotNull
+    public static ShellInjectionSites scan(@NotNull CharSequence text) {
+        List<int[]> ranges = new ArrayList<>();
+        int length = text.length();
+        for (int i = 0; i + 1 < length; i++) {
+            char c = text.charAt(i);
+            char next = text.charAt(i + 1);
+            if (c == '-' && next == 'c') {
+                // Covers --command too: its "-c" candidate fails and the full flag is tried below
+                addSite(text, i + 2, ranges);
+                if (regionMatches(text, i - 1, "--command")) {
+                    addSite(text, i - 1 + "--command".length(), ranges);
+                }
+            } else if (c == '<' && next == '<') {
+                addRedirectSites(text, i + 2, ranges);
+            }
+        }
+        if (ranges.isEmpty()) {
+            return NONE;
+        }
+
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+        int[] starts = new int[ranges.size()];
+        int[] ends = new int[ranges.size()];
+        int count = 0;
+        for (int[] range : ranges) {
+            if (count > 0 && range[0] <= ends[count - 1] + 1) {
+                ends[count - 1] = Math.max(ends[count - 1], range[1]);
+            } else {
+                starts[count] = range[0];
+                ends[count] = range[1];
+                count++;
+            }
+        }
+        return new ShellInjectionSites(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    /**
+     * Whether a host starting at {@code offset} holds a SuperSQL query, judged from the text alone.
+     */
+    public boolean isQueryAt(int offset) {
+        int index = Arrays.binarySearch(starts, offset);
+        if (index < 0) {
+            index = -index - 2; // last range starting before offset
+        }
+        return index >= 0 && offset <= ends[index];
+    }
+
+    /**
+     * Returns {@code detector}'s answer for {@code host}, computed once per host range while the
+     * file is unchanged.
+     */
+    boolean isQuery(@NotNull PsiElement host, @NotNull Predicate<PsiElement> detector) {
+        TextRange range = host.getTextRange();
+        Boolean decision = hostDecisions.get(range);
+        if (decision == null) {
+            decision = detector.test(host);
+            hostDecisions.put(range, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * Candidate ends after {@code <<}: within or after the marker word, and after its closing quote.
+     */
+    private static void addRedirectSites(CharSequence text, int pos, List<int[]> ranges) {
+        int length = text.length();
+        if (pos < length && text.charAt(pos) == '-') {
+            pos++;
+        }
+        if (pos < length && isQuote(text.charAt(pos))) {
+            pos++;
+        }
+        int wordStart = pos;
+        while (pos < length && isWordChar(text.charAt(pos))) {
+            pos++;
+        }
+        if (pos == wordStart) {
+            return;
+        }
+        // Every prefix of the word counts, as it does for the backwards scan
+        for (int end = wordStart + 1; end <= pos; end++) {
+            addSite(text, end, ranges);
+        }
+        if (pos < length && isQuote(text.charAt(pos))) {
+            addSite(text, pos + 1, ranges);
+        }
+    }
+
+    /**
+     * Records the offsets from {@code end} through the following whitespace at which a host is
+     * accepted. Acceptance only ends once the look-back window no longer reaches the command.
+     */
+    private static void addSite(CharSequence text, int end, List<int[]> ranges) {
+        int limit = Math.min(text.length(), end + SuperCommandScanner.LOOKBACK);
+        int last = -1;
+        for (int offset = end; offset <= limit; offset++) {
+            if (!SuperCommandScanner.isQueryAt(text, offset)) {
+                break;
+            }
+            last = offset;
+            if (offset == text.length() || !Character.isWhitespace(text.charAt(offset))) {
+                break;
+            }
+        }
+        if (last >= 0) {
+            ranges.add(new int[]{end, last});
+        }
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, String s) {
+        if (start < 0 || start + s.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(start + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,164 @@
+package org.clabs.superdb.injection;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decides from the text in front of a shell string or heredoc whether it holds a SuperSQL query.
+ * <p>
+ * Recognised forms, where {@code [options]} stays on the line of {@code super}:
+ * <ul>
+ *   <li>{@code super [options] -c "..."} and {@code super [options] --command "..."}</li>
+ *   <li>{@code super [options] -c <<MARKER} followed by the heredoc body</li>
+ *   <li>{@code <<SUPERSQL}, {@code <<SUPER}, {@code <<SPQ}, {@code <<ZQ}, {@code <<SUPERDB}
+ *       (any case, optionally quoted) regardless of the command</li>
+ *   <li>{@code <<-MARKER} wherever {@code <<MARKER} is accepted</li>
+ * </ul>
+ * The scan runs backwards from the host over at most {@link #LOOKBACK} characters of the
+ * file's {@link CharSequence}, so it never copies the script text.
+ */
+public final class SuperCommandScanner {
+
+    /**
+     * How far in front of a host to look, enough for heredoc markers and a few options.
+     */
+    static final int LOOKBACK = 150;
+
+    private static final String[] MARKERS = {"SUPERSQL", "SUPER", "SPQ", "ZQ", "SUPERDB"};
+
+    private SuperCommandScanner() {
+    }
+
+    /**
+     * Returns true if the host starting at {@code offset} in {@code text} is a SuperSQL query.
+     */
+    public static boolean isQueryAt(@NotNull CharSequence text, int offset) {
+        int limit = Math.max(0, offset - LOOKBACK);
+        int end = skipWhitespaceBackward(text, offset, limit);
+
+        // super [options] -c "..."
+        if (endsWithCommandFlag(text, limit, end)) {
+            return true;
+        }
+
+        // <<MARKER, <<"MARKER" or <<'MARKER'
+        int markerEnd = end;
+        if (markerEnd > limit && isQuote(text.charAt(markerEnd - 1))) {
+            markerEnd--;
+        }
+        int markerStart = markerEnd;
+        while (markerStart > limit && isWordChar(text.charAt(markerStart - 1))) {
+            markerStart--;
+        }
+        if (markerStart == markerEnd) {
+            return false;
+        }
+        int redirect = markerStart;
+        if (redirect > limit && isQuote(text.charAt(redirect - 1))) {
+            redirect--;
+        }
+        if (redirect > limit && text.charAt(redirect - 1) == '-') { // <<- strips leading tabs
+            redirect--;
+        }
+        if (redirect - 2 < limit || text.charAt(redirect - 1) != '<' || text.charAt(redirect - 2) != '<') {
+            return false;
+        }
+        if (isMarker(text, markerStart, markerEnd)) {
+            return true;
+        }
+
+        // super [options] -c <<MARKER
+        return endsWithCommandFlag(text, limit, skipWhitespaceBackward(text, redirect - 2, limit));
+    }
+
+    /**
+     * Whether {@code text[limit, end)} ends with {@code -c} or {@code --command} given to {@code super}.
+     */
+    private static boolean endsWithCommandFlag(CharSequence text, int limit, int end) {
+        int flagStart;
+        if (endsWith(text, limit, end, "--command")) {
+            flagStart = end - "--command".length();
+        } else if (endsWith(text, limit, end, "-c")) {
+            flagStart = end - "-c".length();
+        } else {
+            return false;
+        }
+        return hasSuperBefore(text, limit, flagStart);
+    }
+
+    /**
+     * Whether a {@code super} word followed by whitespace precedes {@code flagStart}, with no line
+     * break between that whitespace and the flag.
+     */
+    private static boolean hasSuperBefore(CharSequence text, int limit, int flagStart) {
+        int lineStart = flagStart;
+        while (lineStart > limit && text.charAt(lineStart - 1) != '\n') {
+            lineStart--;
+        }
+        // super on the flag's line
+        for (int i = flagStart - 1; i > lineStart; i--) {
+            if (Character.isWhitespace(text.charAt(i)) && isSuperEndingAt(text, limit, i)) {
+                return true;
+            }
+        }
+        if (lineStart == limit) {
+            return false;
+        }
+        // super at the end of an earlier line, separated from the flag's line by whitespace only
+        int wordEnd = skipWhitespaceBackward(text, lineStart, limit);
+        return isSuperEndingAt(text, limit, wordEnd);
+    }
+
+    private static boolean isSuperEndingAt(CharSequence text, int limit, int end) {
+        int start = end - "super".length();
+        if (!endsWith(text, limit, end, "super")) {
+            return false;
+        }
+        return start == limit || !isWordChar(text.charAt(start - 1));
+    }
+
+    private static boolean isMarker(CharSequence text, int start, int end) {
+        for (String marker : MARKERS) {
+            if (marker.length() == end - start && regionMatchesIgnoreCase(text, start, marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWith(CharSequence text, int limit, int end, String suffix) {
+        int start = end - suffix.length();
+        if (start < limit) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (text.charAt(start + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatchesIgnoreCase(CharSequence text, int start, String upperCase) {
+        for (int i = 0; i < upperCase.length(); i++) {
+            if (Character.toUpperCase(text.charAt(start + i)) != upperCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespaceBackward(CharSequence text, int end, int limit) {
+        while (end > limit && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
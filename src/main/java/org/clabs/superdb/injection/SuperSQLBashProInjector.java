@@ -1,12 +1,10 @@
 package org.clabs.superdb.injection;
 
-import com.intellij.ide.plugins.IdeaPluginDescriptor;
-import com.intellij.ide.plugins.PluginManagerCore;
 import com.intellij.lang.injection.MultiHostInjector;
 import com.intellij.lang.injection.MultiHostRegistrar;
-import com.intellij.openapi.extensions.PluginId;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiLanguageInjectionHost;
 import org.clabs.superdb.SuperSQLLanguage;
 import org.jetbrains.annotations.NotNull;
@@ -14,13 +12,11 @@ import org.jetbrains.annotations.Nullable;
 
 import com.intellij.openapi.diagnostic.Logger;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Predicate;
 
 /**
  * Comprehensive SuperDB language injector for BashSupport Pro.
@@ -49,8 +45,9 @@ import java.util.regex.Pattern;
  * SUPERSQL
  * </pre>
  * <p>
- * Note: This class uses reflection to avoid compile-time dependencies on BashSupport Pro,
- * which is a paid plugin. The injector only activates when BashSupport Pro is installed.
+ * Note: This class reaches BashSupport Pro through {@link BashProBridge} to avoid compile-time
+ * dependencies on it, since it is a paid plugin. The injector only activates when BashSupport Pro
+ * is installed.
  * <p>
  * For the built-in Shell plugin, users should use comment-based injection:
  * {@code # language=SuperDB}
@@ -59,88 +56,35 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
 
     private static final Logger LOG = Logger.getInstance(SuperSQLBashProInjector.class);
 
-    // BashSupport Pro class names
-    private static final String BASH_STRING_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.BashString";
-    private static final String BASH_HEREDOC_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.heredoc.BashHereDoc";
-    private static final String BASH_COMMAND_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.command.BashCommand";
-    private static final String BASH_HEREDOC_START_MARKER_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.heredoc.BashHereDocStartMarker";
-    private static final String BASH_HEREDOC_END_MARKER_CLASS = "com.ansorgit.plugins.bash.lang.psi.api.heredoc.BashHereDocEndMarker";
-
     // Heredoc markers that trigger SuperSQL injection regardless of command
     private static final Set<String> SUPERSQL_HEREDOC_MARKERS = Set.of(
             "SUPERSQL", "SUPER", "SPQ", "ZQ", "SUPERDB",
             "supersql", "super", "spq", "zq", "superdb"
     );
 
-    // Pattern to detect super command in text before heredoc
-    private static final Pattern SUPER_HEREDOC_PATTERN = Pattern.compile(
-            "super\\s+(?:-c|--command)\\s*<<-?['\"]?\\w*['\"]?\\s*$"
-    );
-
-    // Reflection caches
-    private Class<?> bashStringClass;
-    private Class<?> bashHeredocClass;
-    private Class<?> bashCommandClass;
-    private Class<?> bashHeredocStartMarkerClass;
-    private Class<?> bashHeredocEndMarkerClass;
-    private boolean initialized = false;
-    private boolean available = false;
-
-    /**
-     * Lazily initialize reflection classes using BashSupport Pro's classloader.
-     */
-    private synchronized void ensureInitialized() {
-        if (initialized) {
-            return;
-        }
-        initialized = true;
-        try {
-            // Get BashSupport Pro's classloader - required due to plugin classloader isolation
-            IdeaPluginDescriptor bashProPlugin = PluginManagerCore.getPlugin(PluginId.getId("pro.bashsupport"));
-            if (bashProPlugin == null) {
-                available = false;
-                LOG.info("SuperSQLBashProInjector: BashSupport Pro plugin not found");
-                return;
-            }
-
-            ClassLoader bashProClassLoader = bashProPlugin.getClassLoader();
-            if (bashProClassLoader == null) {
-                available = false;
-                LOG.info("SuperSQLBashProInjector: BashSupport Pro classloader not available");
-                return;
-            }
+    // Resolved on first use; resolution is idempotent, so a racing second resolve is harmless
+    private volatile BashProBridge bridge;
 
-            bashStringClass = Class.forName(BASH_STRING_CLASS, true, bashProClassLoader);
-            bashHeredocClass = Class.forName(BASH_HEREDOC_CLASS, true, bashProClassLoader);
-            bashCommandClass = Class.forName(BASH_COMMAND_CLASS, true, bashProClassLoader);
-            // These might not exist in all versions, so we catch individually
-            try {
-                bashHeredocStartMarkerClass = Class.forName(BASH_HEREDOC_START_MARKER_CLASS, true, bashProClassLoader);
-            } catch (ClassNotFoundException ignored) {}
-            try {
-                bashHeredocEndMarkerClass = Class.forName(BASH_HEREDOC_END_MARKER_CLASS, true, bashProClassLoader);
-            } catch (ClassNotFoundException ignored) {}
-            available = true;
-            LOG.info("SuperSQLBashProInjector initialized successfully. BashString=" + bashStringClass +
-                    ", BashHereDoc=" + bashHeredocClass + ", BashCommand=" + bashCommandClass);
-        } catch (ClassNotFoundException e) {
-            // BashSupport Pro classes not found
-            available = false;
-            LOG.info("SuperSQLBashProInjector: BashSupport Pro classes not available - " + e.getMessage());
+    private BashProBridge bridge() {
+        BashProBridge result = bridge;
+        if (result == null) {
+            result = BashProBridge.resolve();
+            bridge = result;
         }
+        return result;
     }
 
     @Override
     public void getLanguagesToInject(@NotNull MultiHostRegistrar registrar,
                                      @NotNull PsiElement context) {
-        ensureInitialized();
-        if (!available) {
+        BashProBridge bash = bridge();
+        if (!bash.isAvailable()) {
             return;
         }
 
         // Check if it's a string literal
-        if (bashStringClass != null && bashStringClass.isInstance(context)) {
-            boolean isQuery = isSuperDbQueryString(context);
+        if (bash.stringClass != null && bash.stringClass.isInstance(context)) {
+            boolean isQuery = isQuery(context, host -> isSuperDbQueryString(bash, host));
             if (LOG.isDebugEnabled()) {
                 LOG.debug("SuperSQLBashProInjector: BashString found, text='" +
                         truncate(context.getText(), 50) + "', isSuperDbQuery=" + isQuery);
@@ -153,8 +97,8 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
         }
 
         // Check if it's a heredoc
-        if (bashHeredocClass != null && bashHeredocClass.isInstance(context)) {
-            boolean isQuery = isSuperDbHeredoc(context);
+        if (bash.heredocClass != null && bash.heredocClass.isInstance(context)) {
+            boolean isQuery = isQuery(context, host -> isSuperDbHeredoc(bash, host));
             if (LOG.isDebugEnabled()) {
                 LOG.debug("SuperSQLBashProInjector: BashHereDoc found, text='" +
                         truncate(context.getText(), 50) + "', isSuperDbQuery=" + isQuery);
@@ -166,6 +110,14 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
         }
     }
 
+    /**
+     * Runs {@code detector} once per host while the file is unchanged.
+     */
+    private static boolean isQuery(PsiElement host, Predicate<PsiElement> detector) {
+        PsiFile file = host.getContainingFile();
+        return file != null ? ShellInjectionSites.of(file).isQuery(host, detector) : detector.test(host);
+    }
+
     private static String truncate(String s, int maxLen) {
         if (s == null) return "<null>";
         return s.length() <= maxLen ? s : s.substring(0, maxLen) + "...";
@@ -173,23 +125,19 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
 
     @Override
     public @NotNull List<? extends Class<? extends PsiElement>> elementsToInjectIn() {
-        ensureInitialized();
-        if (!available) {
+        BashProBridge bash = bridge();
+        if (!bash.isAvailable()) {
             return Collections.emptyList();
         }
 
         List<Class<? extends PsiElement>> classes = new ArrayList<>();
 
-        if (bashStringClass != null) {
-            @SuppressWarnings("unchecked")
-            Class<? extends PsiElement> stringClazz = (Class<? extends PsiElement>) bashStringClass;
-            classes.add(stringClazz);
+        if (bash.stringClass != null) {
+            classes.add(bash.stringClass);
         }
 
-        if (bashHeredocClass != null) {
-            @SuppressWarnings("unchecked")
-            Class<? extends PsiElement> heredocClazz = (Class<? extends PsiElement>) bashHeredocClass;
-            classes.add(heredocClazz);
+        if (bash.heredocClass != null) {
+            classes.add(bash.heredocClass);
         }
 
         return classes;
@@ -201,9 +149,9 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
      * Checks if the given string literal is a SuperDB query argument.
      * Looks for patterns like: super -c "..." or super --command "..."
      */
-    private boolean isSuperDbQueryString(PsiElement bashString) {
+    private boolean isSuperDbQueryString(BashProBridge bash, PsiElement bashString) {
         // Try PSI-based detection first
-        if (isSuperDbQueryViaPsi(bashString)) {
+        if (isSuperDbQueryViaPsi(bash, bashString)) {
             return true;
         }
 
@@ -214,10 +162,10 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
     /**
      * PSI-based detection of super -c pattern for strings.
      */
-    private boolean isSuperDbQueryViaPsi(PsiElement bashString) {
+    private boolean isSuperDbQueryViaPsi(BashProBridge bash, PsiElement bashString) {
         // Walk up to find the containing BashCommand
         PsiElement parent = bashString.getParent();
-        while (parent != null && !bashCommandClass.isInstance(parent)) {
+        while (parent != null && !bash.commandClass.isInstance(parent)) {
             parent = parent.getParent();
         }
 
@@ -226,13 +174,13 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
         }
 
         // Get the command name via reflection
-        String commandName = getReferencedCommandName(parent);
+        String commandName = bash.getReferencedCommandName(parent);
         if (!"super".equals(commandName)) {
             return false;
         }
 
         // Get all parameters and find our string's position
-        List<PsiElement> params = getParameters(parent);
+        List<PsiElement> params = bash.getParameters(parent);
         if (params == null || params.size() < 2) {
             return false;
         }
@@ -259,21 +207,8 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
      * Text-based fallback detection of super -c pattern for strings.
      */
     private boolean isSuperDbQueryViaText(PsiElement bashString) {
-        PsiElement file = bashString.getContainingFile();
-        if (file == null) {
-            return false;
-        }
-
-        String fileText = file.getText();
-        int stringStart = bashString.getTextOffset();
-
-        // Get text before the string (up to 50 chars should be enough)
-        int lookbackStart = Math.max(0, stringStart - 50);
-        String precedingText = fileText.substring(lookbackStart, stringStart).trim();
-
-        // Check for "super -c" or "super --command" pattern
-        return precedingText.endsWith("super -c") ||
-               precedingText.endsWith("super --command");
+        PsiFile file = bashString.getContainingFile();
+        return file != null && ShellInjectionSites.of(file).isQueryAt(bashString.getTextOffset());
     }
 
     /**
@@ -298,28 +233,28 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
      * - The heredoc follows a "super -c" or "super --command" pattern
      * - The heredoc marker is a recognized SuperSQL marker (SUPERSQL, SUPER, SPQ, etc.)
      */
-    private boolean isSuperDbHeredoc(PsiElement heredoc) {
+    private boolean isSuperDbHeredoc(BashProBridge bash, PsiElement heredoc) {
         // First check if the heredoc is a valid injection host
         if (!isValidHeredocHost(heredoc)) {
             return false;
         }
 
         // Check for marker-based detection (highest priority - works without command)
-        String markerName = getHeredocMarkerName(heredoc);
+        String markerName = getHeredocMarkerName(bash, heredoc);
         if (markerName != null && SUPERSQL_HEREDOC_MARKERS.contains(markerName)) {
             return true;
         }
 
         // Check for command-based detection
-        return isSuperDbHeredocViaCommand(heredoc);
+        return isSuperDbHeredocViaCommand(bash, heredoc);
     }
 
     /**
      * Check if heredoc follows a super -c command.
      */
-    private boolean isSuperDbHeredocViaCommand(PsiElement heredoc) {
+    private boolean isSuperDbHeredocViaCommand(BashProBridge bash, PsiElement heredoc) {
         // Try PSI-based detection
-        if (isSuperDbHeredocViaPsi(heredoc)) {
+        if (isSuperDbHeredocViaPsi(bash, heredoc)) {
             return true;
         }
 
@@ -330,10 +265,10 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
     /**
      * PSI-based detection for heredocs following super -c.
      */
-    private boolean isSuperDbHeredocViaPsi(PsiElement heredoc) {
+    private boolean isSuperDbHeredocViaPsi(BashProBridge bash, PsiElement heredoc) {
         // Walk up to find the containing BashCommand
         PsiElement parent = heredoc.getParent();
-        while (parent != null && !bashCommandClass.isInstance(parent)) {
+        while (parent != null && !bash.commandClass.isInstance(parent)) {
             parent = parent.getParent();
         }
 
@@ -342,13 +277,13 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
         }
 
         // Get the command name
-        String commandName = getReferencedCommandName(parent);
+        String commandName = bash.getReferencedCommandName(parent);
         if (!"super".equals(commandName)) {
             return false;
         }
 
         // Check for -c or --command parameter
-        List<PsiElement> params = getParameters(parent);
+        List<PsiElement> params = bash.getParameters(parent);
         if (params == null) {
             return false;
         }
@@ -367,29 +302,17 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
      * Text-based detection for heredocs following super -c.
      */
     private boolean isSuperDbHeredocViaText(PsiElement heredoc) {
-        PsiElement file = heredoc.getContainingFile();
-        if (file == null) {
-            return false;
-        }
-
-        String fileText = file.getText();
-        int heredocStart = heredoc.getTextOffset();
-
-        // Look back for super -c <<MARKER pattern (up to 100 chars)
-        int lookbackStart = Math.max(0, heredocStart - 100);
-        String precedingText = fileText.substring(lookbackStart, heredocStart);
-
-        Matcher matcher = SUPER_HEREDOC_PATTERN.matcher(precedingText);
-        return matcher.find();
+        PsiFile file = heredoc.getContainingFile();
+        return file != null && ShellInjectionSites.of(file).isQueryAt(heredoc.getTextOffset());
     }
 
     /**
      * Gets the heredoc marker name (e.g., "EOF", "SUPERSQL").
      */
     @Nullable
-    private String getHeredocMarkerName(PsiElement heredoc) {
+    private String getHeredocMarkerName(BashProBridge bash, PsiElement heredoc) {
         // Try to find the start marker
-        PsiElement startMarker = findHeredocStartMarker(heredoc);
+        PsiElement startMarker = findHeredocStartMarker(bash.heredocStartMarkerClass, heredoc);
         if (startMarker != null) {
             String markerText = startMarker.getText();
             // Strip quotes if present: "EOF" -> EOF, 'EOF' -> EOF
@@ -404,7 +327,7 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
         }
 
         // Fallback: try to get from end marker (usually last sibling)
-        PsiElement endMarker = findHeredocEndMarker(heredoc);
+        PsiElement endMarker = findHeredocEndMarker(bash.heredocEndMarkerClass, heredoc);
         if (endMarker != null) {
             return endMarker.getText().trim();
         }
@@ -416,7 +339,7 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
      * Find the start marker element for a heredoc.
      */
     @Nullable
-    private PsiElement findHeredocStartMarker(PsiElement heredoc) {
+    private PsiElement findHeredocStartMarker(@Nullable Class<?> bashHeredocStartMarkerClass, PsiElement heredoc) {
         // Check previous siblings
         PsiElement sibling = heredoc.getPrevSibling();
         while (sibling != null) {
@@ -438,7 +361,7 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
      * Find the end marker element for a heredoc.
      */
     @Nullable
-    private PsiElement findHeredocEndMarker(PsiElement heredoc) {
+    private PsiElement findHeredocEndMarker(@Nullable Class<?> bashHeredocEndMarkerClass, PsiElement heredoc) {
         // Check next siblings
         PsiElement sibling = heredoc.getNextSibling();
         while (sibling != null) {
@@ -456,27 +379,8 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
      * (i.e., quoted markers like <<"EOF").
      */
     private boolean isValidHeredocHost(PsiElement heredoc) {
-        // First check if it implements PsiLanguageInjectionHost
-        if (!(heredoc instanceof PsiLanguageInjectionHost)) {
-            return false;
-        }
-
-        // Check isValidHost() via reflection
-        try {
-            Method isValidHostMethod = heredoc.getClass().getMethod("isValidHost");
-            Boolean result = (Boolean) isValidHostMethod.invoke(heredoc);
-            return result != null && result;
-        } catch (Exception e) {
-            // If we can't determine, try to check isEvaluatingVariables
-            try {
-                Method method = bashHeredocClass.getMethod("isEvaluatingVariables");
-                Boolean isEvaluating = (Boolean) method.invoke(heredoc);
-                // Valid host if NOT evaluating variables
-                return isEvaluating != null && !isEvaluating;
-            } catch (Exception ex) {
-                return false;
-            }
-        }
+        // isValidHost() is part of PsiLanguageInjectionHost, so no reflection is needed
+        return heredoc instanceof PsiLanguageInjectionHost host && host.isValidHost();
     }
 
     /**
@@ -499,33 +403,6 @@ public class SuperSQLBashProInjector implements MultiHostInjector {
 
     // ========== Utility Methods ==========
 
-    /**
-     * Gets the command name via reflection.
-     */
-    @Nullable
-    private String getReferencedCommandName(PsiElement command) {
-        try {
-            Method method = bashCommandClass.getMethod("getReferencedCommandName");
-            return (String) method.invoke(command);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * Gets parameters via reflection.
-     */
-    @Nullable
-    @SuppressWarnings("unchecked")
-    private List<PsiElement> getParameters(PsiElement command) {
-        try {
-            Method method = bashCommandClass.getMethod("parameters");
-            return (List<PsiElement>) method.invoke(command);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     /**
      * Checks if element is the target or contains it.
      */
@@ -11,9 +11,6 @@ import org.clabs.superdb.SuperSQLLanguage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * High-level language injection contributor for SuperDB/SuperSQL.
  * <p>
@@ -28,27 +25,6 @@ public class SuperSQLInjectionContributor implements LanguageInjectionContributo
     private static final Logger LOG = Logger.getInstance(SuperSQLInjectionContributor.class);
     private static final String BASHPRO_LANGUAGE_ID = "BashSupport Pro Shell Script";
 
-    // Pattern to match "super" followed by any options, ending with "-c" or "--command"
-    // Examples: "super -c", "super -s -c", "super -f line -c", "super --command"
-    // Uses non-greedy match to find the last -c/--command before the string
-    private static final Pattern SUPER_COMMAND_PATTERN = Pattern.compile(
-            "\\bsuper\\s+[^\\n]*?(-c|--command)\\s*$"
-    );
-
-    // Pattern for heredocs: super [options] -c <<["']?MARKER["']?\n
-    // Matches heredocs following super -c command
-    private static final Pattern SUPER_HEREDOC_PATTERN = Pattern.compile(
-            "\\bsuper\\s+[^\\n]*?(-c|--command)\\s*<<[\"']?\\w+[\"']?\\s*$",
-            Pattern.MULTILINE
-    );
-
-    // Pattern for marker-based heredocs (inject regardless of command)
-    // Matches: <<["']?(SUPERSQL|SUPER|SPQ|ZQ|SUPERDB)["']?
-    private static final Pattern MARKER_HEREDOC_PATTERN = Pattern.compile(
-            "<<[\"']?(SUPERSQL|SUPER|SPQ|ZQ|SUPERDB)[\"']?\\s*$",
-            Pattern.CASE_INSENSITIVE | Pattern.MULTILINE
-    );
-
     @Override
     public @Nullable Injection getInjection(@NotNull PsiElement context) {
         // Only process injection host elements
@@ -69,7 +45,9 @@ public class SuperSQLInjectionContributor implements LanguageInjectionContributo
 
         // Check if this is a super -c query
         if (isSuperDbQuery(context)) {
-            LOG.debug("SuperSQLInjectionContributor: Injecting SuperSQL into: " + truncate(context.getText(), 50));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("SuperSQLInjectionContributor: Injecting SuperSQL into: " + truncate(context.getText(), 50));
+            }
             return new SimpleInjection(SuperSQLLanguage.INSTANCE, "", "", null);
         }
 
@@ -82,39 +60,16 @@ public class SuperSQLInjectionContributor implements LanguageInjectionContributo
      * - String arguments: super -c "...", super -s -c "...", super --command "..."
      * - Heredocs after super -c: super -c <<"EOF" ... EOF
      * - Marker-based heredocs: <<SUPERSQL, <<SUPER, <<SPQ, <<ZQ, <<SUPERDB
+     * <p>
+     * Answered from the file's {@link ShellInjectionSites}, which are found in one pass and
+     * cached until the file changes.
      */
-    private boolean isSuperDbQuery(PsiElement element) {
+    private static boolean isSuperDbQuery(PsiElement element) {
         PsiFile file = element.getContainingFile();
         if (file == null) {
             return false;
         }
-
-        String fileText = file.getText();
-        int elementStart = element.getTextOffset();
-
-        // Get text before the element (up to 150 chars to allow for heredoc markers and options)
-        int lookbackStart = Math.max(0, elementStart - 150);
-        String precedingText = fileText.substring(lookbackStart, elementStart);
-
-        // Check for string argument: super [options] -c "..."
-        if (SUPER_COMMAND_PATTERN.matcher(precedingText).find()) {
-            LOG.debug("Matched SUPER_COMMAND_PATTERN");
-            return true;
-        }
-
-        // Check for heredoc after super -c: super [options] -c <<"EOF"\n
-        if (SUPER_HEREDOC_PATTERN.matcher(precedingText).find()) {
-            LOG.debug("Matched SUPER_HEREDOC_PATTERN");
-            return true;
-        }
-
-        // Check for marker-based heredocs: <<"SUPERSQL", <<"SUPER", etc.
-        if (MARKER_HEREDOC_PATTERN.matcher(precedingText).find()) {
-            LOG.debug("Matched MARKER_HEREDOC_PATTERN");
-            return true;
-        }
-
-        return false;
+        return ShellInjectionSites.of(file).isQueryAt(element.getTextOffset());
     }
 
     private static String truncate(String s, int maxLen) {
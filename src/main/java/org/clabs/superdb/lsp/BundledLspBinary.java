@@ -0,0 +1,229 @@
+package org.clabs.superdb.lsp;
+
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The platform's superdb-lsp binary bundled in the plugin jar, installed once into the IDE
+ * system directory.
+ * <p>
+ * Each plugin version gets its own directory under {@code <system>/superdb-lsp}, holding the
+ * binary and an {@code .installed} marker with the number of bytes copied. The marker is
+ * written last, so its presence marks a complete install. Later starts only compare the file
+ * size with the marker's and the jar entry's, instead of copying tens of megabytes into a new
+ * temp directory.
+ * Directories left by other plugin versions are deleted after a fresh install.
+ */
+public final class BundledLspBinary {
+
+    private static final Logger LOG = Logger.getInstance(BundledLspBinary.class);
+
+    private static final String PLUGIN_ID = "org.clabs.superdb";
+    private static final String INSTALL_DIR = "superdb-lsp";
+    private static final String MARKER_SUFFIX = ".installed";
+
+    private static final Set<PosixFilePermission> EXECUTABLE = EnumSet.of(
+            PosixFilePermission.OWNER_READ,
+            PosixFilePermission.OWNER_WRITE,
+            PosixFilePermission.OWNER_EXECUTE,
+            PosixFilePermission.GROUP_READ,
+            PosixFilePermission.GROUP_EXECUTE,
+            PosixFilePermission.OTHERS_READ,
+            PosixFilePermission.OTHERS_EXECUTE
+    );
+
+    private static final Object LOCK = new Object();
+
+    // Installed path for this IDE session, once known
+    private static volatile Path installed;
+
+    private BundledLspBinary() {
+    }
+
+    /**
+     * Returns the installed binary, installing it on first use, or null if none is bundled
+     * for this platform.
+     */
+    @Nullable
+    public static Path get() throws IOException {
+        Path path = installed;
+        if (path != null && Files.isRegularFile(path)) {
+            return path;
+        }
+        String resourceName = getResourceName();
+        if (resourceName == null) {
+            return null;
+        }
+        URL resource = BundledLspBinary.class.getResource(resourceName);
+        if (resource == null) {
+            LOG.info("No bundled LSP binary found at: " + resourceName);
+            return null;
+        }
+        synchronized (LOCK) {
+            path = installed;
+            if (path == null || !Files.isRegularFile(path)) {
+                path = install(resource, Path.of(PathManager.getSystemPath(), INSTALL_DIR), getPluginVersion(),
+                        getBinaryName());
+                installed = path;
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Installs {@code resource} as {@code root/version/binaryName} unless an intact copy is
+     * already there, and prunes the directories of other versions after a fresh install.
+     */
+    @NotNull
+    public static Path install(@NotNull URL resource, @NotNull Path root, @NotNull String version,
+                               @NotNull String binaryName) throws IOException {
+        Path dir = root.resolve(sanitize(version));
+        Path binary = dir.resolve(binaryName);
+        Path marker = dir.resolve(binaryName + MARKER_SUFFIX);
+
+        URLConnection connection = resource.openConnection();
+        long expectedSize = connection.getContentLengthLong();
+        if (isIntact(binary, marker, expectedSize)) {
+            LOG.debug("Reusing installed LSP binary: " + binary);
+            return binary;
+        }
+
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+        Files.deleteIfExists(marker);
+        Path temp = Files.createTempFile(dir, binaryName, ".tmp");
+        long size;
+        try {
+            try (InputStream in = connection.getInputStream()) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (!SystemInfo.isWindows) {
+                Files.setPosixFilePermissions(temp, EXECUTABLE);
+            }
+            move(temp, binary);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        Files.writeString(marker, Long.toString(size), StandardCharsets.US_ASCII);
+        LOG.info("Installed LSP binary " + binary + " (" + size + " bytes) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        pruneOtherVersions(root, dir);
+        return binary;
+    }
+
+    /**
+     * Whether a complete install is present: the marker is there and the binary has the size it
+     * records, and the jar entry's size if known.
+     */
+    private static boolean isIntact(Path binary, Path marker, long expectedSize) throws IOException {
+        if (!Files.isRegularFile(binary) || !Files.isRegularFile(marker)) {
+            return false;
+        }
+        long size = Files.size(binary);
+        try {
+            if (size != Long.parseLong(Files.readString(marker, StandardCharsets.US_ASCII).trim())) {
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expectedSize >= 0 && size != expectedSize) {
+            return false;
+        }
+        return SystemInfo.isWindows || Files.isExecutable(binary);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void pruneOtherVersions(Path root, Path current) {
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                if (!dir.equals(current)) {
+                    // Best effort: a binary still running from another IDE instance may be locked
+                    if (FileUtil.delete(dir.toFile())) {
+                        LOG.info("Removed stale LSP binary directory: " + dir);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("Could not prune stale LSP binaries under " + root, e);
+        }
+    }
+
+    private static String sanitize(String version) {
+        return version.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    @NotNull
+    private static String getPluginVersion() {
+        IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        return plugin != null && plugin.getVersion() != null ? plugin.getVersion() : "dev";
+    }
+
+    @NotNull
+    static String getBinaryName() {
+        return SystemInfo.isWindows ? "superdb-lsp.exe" : "superdb-lsp";
+    }
+
+    /**
+     * Gets the resource path for the bundled binary based on current platform.
+     */
+    @Nullable
+    static String getResourceName() {
+        String os;
+        String arch;
+
+        if (SystemInfo.isWindows) {
+            os = "windows";
+        } else if (SystemInfo.isMac) {
+            os = "darwin";
+        } else if (SystemInfo.isLinux) {
+            os = "linux";
+        } else {
+            LOG.warn("Unsupported OS: " + SystemInfo.OS_NAME);
+            return null;
+        }
+
+        // Detect architecture
+        String osArch = System.getProperty("os.arch", "").toLowerCase();
+        if (osArch.contains("amd64") || osArch.contains("x86_64")) {
+            arch = "amd64";
+        } else if (osArch.contains("aarch64") || osArch.contains("arm64")) {
+            arch = "arm64";
+        } else {
+            LOG.warn("Unsupported architecture: " + osArch);
+            return null;
+        }
+
+        String suffix = SystemInfo.isWindows ? ".exe" : "";
+        return "/lsp/superdb-lsp-" + os + "-" + arch + suffix;
+    }
+}
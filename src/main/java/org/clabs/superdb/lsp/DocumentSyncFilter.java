@@ -0,0 +1,357 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sits between LSP4IJ and one language server connection and thins out the traffic of typing.
+ * <p>
+ * {@code textDocument/didChange} notifications are held for a short debounce and merged per
+ * document: incremental changes are concatenated, which the protocol applies in order, and a
+ * full-text change replaces everything before it. Pending changes are sent before any other
+ * message, so the server never sees a request against stale text. A new completion, hover,
+ * signature help or pull-diagnostics request for a document cancels the previous one for the
+ * same document that is still unanswered. Counters report the message rate on both sides.
+ */
+final class DocumentSyncFilter {
+
+    private static final Logger LOG = Logger.getInstance(DocumentSyncFilter.class);
+
+    // Requests where only the newest one per document is worth answering
+    private static final Set<String> SUPERSEDABLE = Set.of(
+            "textDocument/completion",
+            "textDocument/hover",
+            "textDocument/signatureHelp",
+            "textDocument/documentHighlight",
+            "textDocument/diagnostic"
+    );
+
+    /**
+     * Totals since the connection was created.
+     */
+    record Stats(long received, long sent, long coalesced, long cancelled,
+                 int peakReceivedPerSecond, int peakSentPerSecond) {
+    }
+
+    private final String name;
+    private final long debounceMillis;
+    @Nullable private final LspMetrics metrics;
+
+    // Guarded by this
+    private OutputStream server;
+    private LspFrames.Decoder decoder;
+    private final Map<String, JsonObject> pendingChanges = new LinkedHashMap<>();
+    // Unanswered supersedable requests by method and document; also updated by the reading thread
+    private final Map<String, JsonElement> outstanding = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> flush;
+    // Counters are only written under this but read without it, see getStats()
+    private final RateCounter received = new RateCounter();
+    private final RateCounter sent = new RateCounter();
+    private volatile long coalesced;
+    private volatile long cancelled;
+
+    private InputStream lastServerOutput;
+    private InputStream lastTap;
+
+    /**
+     * @param debounceMillis how long to hold a didChange for more to merge, 0 to send at once
+     */
+    DocumentSyncFilter(@NotNull String name, long debounceMillis) {
+        this(name, debounceMillis, null);
+    }
+
+    /**
+     * @param metrics where to report what is sent to and read from the server, if anywhere
+     */
+    DocumentSyncFilter(@NotNull String name, long debounceMillis, @Nullable LspMetrics metrics) {
+        this.name = name;
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Wraps the server's input: what LSP4IJ writes is filtered before it reaches {@code serverInput}.
+     */
+    @NotNull
+    synchronized OutputStream toServer(@NotNull OutputStream serverInput) {
+        if (server != serverInput) {
+            server = serverInput;
+            decoder = new LspFrames.Decoder();
+            pendingChanges.clear();
+            outstanding.clear();
+        }
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte @NotNull [] b, int off, int len) throws IOException {
+                synchronized (DocumentSyncFilter.this) {
+                    IOException[] failure = new IOException[1];
+                    decoder.feed(b, off, len, message -> {
+                        try {
+                            fromClient(message);
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    });
+                    if (failure[0] != null) {
+                        throw failure[0];
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                synchronized (DocumentSyncFilter.this) {
+                    server.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (DocumentSyncFilter.this) {
+                    flushPendingChanges();
+                    server.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps the server's output, passing bytes through unchanged while noting answered requests.
+     */
+    @NotNull
+    synchronized InputStream fromServer(@NotNull InputStream serverOutput) {
+        if (serverOutput != lastServerOutput) {
+            lastServerOutput = serverOutput;
+            lastTap = new FrameTap(serverOutput, this::fromServer, metrics);
+        }
+        return lastTap;
+    }
+
+    /**
+     * The counters so far. Takes no lock, so it never waits behind a write to a stalled server.
+     */
+    @NotNull
+    Stats getStats() {
+        return new Stats(received.total, sent.total, coalesced, cancelled, received.peak, sent.peak);
+    }
+
+    /**
+     * Sends whatever is still held back and logs the counters.
+     */
+    synchronized void close() {
+        try {
+            flushPendingChanges();
+        } catch (IOException e) {
+            LOG.debug("Could not send pending changes for " + name, e);
+        }
+        LOG.info("SuperSQL LSP traffic for " + name + ": " + getStats());
+    }
+
+    private void fromClient(JsonObject message) throws IOException {
+        received.add();
+        String method = LspFrames.method(message);
+        if ("textDocument/didChange".equals(method) && debounceMillis > 0) {
+            holdChange(message);
+            return;
+        }
+        flushPendingChanges();
+
+        JsonElement id = message.get("id");
+        if (id != null && method != null && SUPERSEDABLE.contains(method)) {
+            String key = method + " " + documentUri(message);
+            JsonElement previous = outstanding.put(key, id);
+            if (previous != null) {
+                send(cancelRequest(previous));
+                cancelled++;
+            }
+        }
+        send(message);
+    }
+
+    private void fromServer(JsonObject message) {
+        JsonElement id = message.get("id");
+        if (id != null && LspFrames.method(message) == null) {
+            // Not under the lock: a writer may hold it while blocked on a full server pipe
+            outstanding.values().remove(id);
+        }
+        if (metrics != null) {
+            metrics.onReceived(message);
+        }
+    }
+
+    private void holdChange(JsonObject change) throws IOException {
+        String uri = documentUri(change);
+        if (uri == null) {
+            flushPendingChanges();
+            send(change);
+            return;
+        }
+        JsonObject pending = pendingChanges.get(uri);
+        if (pending == null) {
+            pendingChanges.put(uri, change);
+        } else {
+            merge(pending, change);
+            coalesced++;
+        }
+        if (flush == null) {
+            flush = AppExecutorUtil.getAppScheduledExecutorService()
+                    .schedule(this::flushLater, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Folds {@code later} into {@code pending}: newest version, changes applied in order.
+     */
+    static void merge(@NotNull JsonObject pending, @NotNull JsonObject later) {
+        JsonObject pendingParams = pending.getAsJsonObject("params");
+        JsonObject laterParams = later.getAsJsonObject("params");
+        pendingParams.add("textDocument", laterParams.get("textDocument"));
+        JsonArray changes = pendingParams.getAsJsonArray("contentChanges");
+        for (JsonElement change : laterParams.getAsJsonArray("contentChanges")) {
+            if (change.isJsonObject() && !change.getAsJsonObject().has("range")) {
+                // Full text: nothing before it matters
+                changes = new JsonArray();
+                pendingParams.add("contentChanges", changes);
+            }
+            changes.add(change);
+        }
+    }
+
+    private synchronized void flushLater() {
+        flush = null;
+        try {
+            flushPendingChanges();
+        } catch (IOException e) {
+            LOG.debug("Could not send pending changes for " + name, e);
+        }
+    }
+
+    private void flushPendingChanges() throws IOException {
+        if (flush != null) {
+            flush.cancel(false);
+            flush = null;
+        }
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        for (JsonObject change : pendingChanges.values()) {
+            send(change);
+        }
+        pendingChanges.clear();
+    }
+
+    private void send(JsonObject message) throws IOException {
+        byte[] frame = LspFrames.encode(message);
+        if (metrics != null) {
+            // Before writing, so a fast response can't arrive ahead of its request
+            metrics.onSent(message, frame.length);
+        }
+        server.write(frame);
+        server.flush();
+        sent.add();
+    }
+
+    private static JsonObject cancelRequest(JsonElement id) {
+        JsonObject params = new JsonObject();
+        params.add("id", id);
+        JsonObject cancel = new JsonObject();
+        cancel.addProperty("jsonrpc", "2.0");
+        cancel.addProperty("method", "$/cancelRequest");
+        cancel.add("params", params);
+        return cancel;
+    }
+
+    @Nullable
+    private static String documentUri(JsonObject message) {
+        if (message.get("params") instanceof JsonObject params
+                && params.get("textDocument") instanceof JsonObject document
+                && document.get("uri") != null) {
+            return document.get("uri").getAsString();
+        }
+        return null;
+    }
+
+    /**
+     * Messages per second, with the busiest second seen. Added to by one thread at a time.
+     */
+    private static final class RateCounter {
+        volatile long total;
+        volatile int peak;
+        private long second;
+        private int count;
+
+        void add() {
+            total++;
+            long now = System.nanoTime() / 1_000_000_000L;
+            if (now != second) {
+                second = now;
+                count = 0;
+            }
+            peak = Math.max(peak, ++count);
+        }
+    }
+
+    /**
+     * Passes a stream through unchanged while decoding the messages in it.
+     */
+    static final class FrameTap extends FilterInputStream {
+
+        private final LspFrames.Decoder decoder = new LspFrames.Decoder();
+        private final Consumer<JsonObject> listener;
+        @Nullable private final LspMetrics metrics;
+
+        FrameTap(@NotNull InputStream in, @NotNull Consumer<JsonObject> listener, @Nullable LspMetrics metrics) {
+            super(in);
+            this.listener = listener;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+                decoder.feed(new byte[]{(byte) b}, 0, 1, listener);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte @NotNull [] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+                decoder.feed(b, off, n, listener);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            if (metrics != null) {
+                metrics.onBytesReceived(n);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * LSP base protocol framing: {@code Content-Length} headers followed by a JSON-RPC message.
+ */
+public final class LspFrames {
+
+    private static final String CONTENT_LENGTH = "content-length:";
+
+    private LspFrames() {
+    }
+
+    /**
+     * Frames {@code message} for writing to a language server or client stream.
+     */
+    public static byte @NotNull [] encode(@NotNull JsonObject message) {
+        byte[] content = message.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] header = ("Content-Length: " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] frame = Arrays.copyOf(header, header.length + content.length);
+        System.arraycopy(content, 0, frame, header.length, content.length);
+        return frame;
+    }
+
+    /**
+     * The {@code method} of a request or notification, or null for a response.
+     */
+    @Nullable
+    public static String method(@NotNull JsonObject message) {
+        JsonElement method = message.get("method");
+        return method != null && method.isJsonPrimitive() ? method.getAsString() : null;
+    }
+
+    /**
+     * Splits a byte stream into messages. Bytes may arrive in chunks of any size; each header
+     * is parsed once and the content is copied straight into an array of its length, so a
+     * message costs time linear in its size however it is chunked.
+     * Not thread-safe: feed it from one stream.
+     */
+    public static final class Decoder {
+
+        private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+        // Header bytes of the frame being read, including as much of its blank line as was seen
+        private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        private int headerEndMatched;
+        // Content of the frame being read once its header is complete, else null
+        private byte[] content;
+        private int filled;
+
+        /**
+         * Decodes {@code bytes[offset, offset+length)} and passes every completed message to {@code sink}.
+         * A message whose content is not a JSON object is dropped.
+         */
+        public void feed(byte @NotNull [] bytes, int offset, int length, @NotNull Consumer<JsonObject> sink) {
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                if (content == null) {
+                    i = readHeader(bytes, i, end);
+                } else {
+                    int n = Math.min(end - i, content.length - filled);
+                    System.arraycopy(bytes, i, content, filled, n);
+                    filled += n;
+                    i += n;
+                }
+                if (content != null && filled == content.length) {
+                    byte[] complete = content;
+                    content = null;
+                    filled = 0;
+                    deliver(complete, sink);
+                }
+            }
+        }
+
+        /**
+         * Reads header bytes from {@code bytes[offset, end)} up to the blank line, returning where
+         * the content starts, or {@code end} if the header goes on.
+         */
+        private int readHeader(byte[] bytes, int offset, int end) {
+            for (int i = offset; i < end; i++) {
+                byte b = bytes[i];
+                if (b == HEADER_END[headerEndMatched]) {
+                    headerEndMatched++;
+                } else {
+                    headerEndMatched = b == '\r' ? 1 : 0;
+                }
+                if (headerEndMatched == HEADER_END.length) {
+                    header.write(bytes, offset, i + 1 - offset);
+                    String text = header.toString(StandardCharsets.US_ASCII);
+                    header.reset();
+                    headerEndMatched = 0;
+                    content = new byte[parseContentLength(text.substring(0, text.length() - HEADER_END.length))];
+                    return i + 1;
+                }
+            }
+            header.write(bytes, offset, end - offset);
+            return end;
+        }
+
+        private static void deliver(byte[] content, Consumer<JsonObject> sink) {
+            JsonElement element;
+            try {
+                element = JsonParser.parseString(new String(content, StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                // Malformed content: skip it and carry on with the next frame
+                return;
+            }
+            if (element.isJsonObject()) {
+                sink.accept(element.getAsJsonObject());
+            }
+        }
+
+        private static int parseContentLength(String headers) {
+            for (String line : headers.split("\r\n")) {
+                if (line.toLowerCase(Locale.ROOT).startsWith(CONTENT_LENGTH)) {
+                    try {
+                        return Math.max(0, Integer.parseInt(line.substring(CONTENT_LENGTH.length()).trim()));
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Latency and traffic of a project's SuperSQL language server connection, as seen on the wire.
+ * <p>
+ * {@link DocumentSyncFilter} reports every message it sends to the server and every message
+ * the server sends back. A request's latency runs from the moment it is written to the server
+ * to the moment its response is read, so it excludes LSP4IJ's own queuing and handling and
+ * includes the server's. Latencies go into power-of-two millisecond buckets per method.
+ * Counters accumulate across server restarts until {@link #reset()}.
+ */
+@Service(Service.Level.PROJECT)
+public final class LspMetrics {
+
+    private static final Logger LOG = Logger.getInstance(LspMetrics.class);
+
+    // LSP error code for a request cancelled by the client
+    private static final int REQUEST_CANCELLED = -32800;
+
+    private final Project project;
+
+    private final Map<String, Histogram> methods = new ConcurrentHashMap<>();
+    private final Map<JsonElement, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong largestMessageSent = new AtomicLong();
+
+    private volatile DocumentSyncFilter sync;
+    private volatile Supplier<ProcessHandle> process = () -> null;
+    // When the project was opened, or 0 if unknown; the first completion after it is logged once
+    private volatile long openedNanos;
+    private final AtomicBoolean firstCompletionLogged = new AtomicBoolean();
+
+    private record InFlight(String method, long startNanos) {
+    }
+
+    public LspMetrics(@NotNull Project project) {
+        this.project = project;
+    }
+
+    public static LspMetrics getInstance(@NotNull Project project) {
+        return project.getService(LspMetrics.class);
+    }
+
+    /**
+     * Makes this the current connection's filter and server process.
+     */
+    void connect(@NotNull DocumentSyncFilter sync, @NotNull Supplier<ProcessHandle> process) {
+        this.sync = sync;
+        this.process = process;
+        inFlight.clear();
+    }
+
+    void onSent(@NotNull JsonObject message, int size) {
+        messagesSent.incrementAndGet();
+        bytesSent.addAndGet(size);
+        largestMessageSent.accumulateAndGet(size, Math::max);
+        JsonElement id = message.get("id");
+        String method = LspFrames.method(message);
+        if (id != null && method != null) {
+            inFlight.put(id, new InFlight(method, System.nanoTime()));
+            maxInFlight.accumulateAndGet(inFlight.size(), Math::max);
+        }
+    }
+
+    void onReceived(@NotNull JsonObject message) {
+        messagesReceived.incrementAndGet();
+        JsonElement id = message.get("id");
+        if (id == null || LspFrames.method(message) != null) {
+            return;
+        }
+        InFlight request = inFlight.remove(id);
+        if (request == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long nanos = now - request.startNanos;
+        if (request.method.equals("textDocument/completion") && !message.has("error")) {
+            logFirstCompletion(now, nanos);
+        }
+        Histogram histogram = methods.computeIfAbsent(request.method, m -> new Histogram());
+        if (message.get("error") instanceof JsonObject error && error.has("code")
+                && error.get("code").getAsInt() == REQUEST_CANCELLED) {
+            histogram.cancelled.incrementAndGet();
+        } else {
+            histogram.record(nanos, message.has("error"));
+        }
+    }
+
+    /**
+     * Starts the clock for the first completion answered in this project.
+     */
+    void projectOpened(long nanos) {
+        openedNanos = nanos;
+    }
+
+    void onBytesReceived(int count) {
+        bytesReceived.addAndGet(count);
+    }
+
+    private void logFirstCompletion(long now, long requestNanos) {
+        long opened = openedNanos;
+        if (opened != 0 && firstCompletionLogged.compareAndSet(false, true)) {
+            String warmUp = SuperSQLLspSettings.getInstance().isWarmUp() ? "on" : "off";
+            LOG.info("First SuperSQL LSP completion for " + project.getName() + " answered "
+                    + (now - opened) / 1_000_000 + " ms after project open, " + requestNanos / 1_000_000
+                    + " ms after it was requested (warm-up " + warmUp + ")");
+        }
+    }
+
+    /**
+     * Clears all counters; the current connection keeps reporting.
+     */
+    public void reset() {
+        methods.clear();
+        inFlight.clear();
+        maxInFlight.set(0);
+        messagesSent.set(0);
+        messagesReceived.set(0);
+        bytesSent.set(0);
+        bytesReceived.set(0);
+        largestMessageSent.set(0);
+    }
+
+    /**
+     * Everything recorded so far, for display or export.
+     */
+    @NotNull
+    public JsonObject snapshot() {
+        JsonObject snapshot = new JsonObject();
+        snapshot.addProperty("project", project.getName());
+        snapshot.addProperty("time", Instant.now().toString());
+
+        JsonObject server = new JsonObject();
+        ProcessHandle handle = process.get();
+        ProcessStats stats = handle != null && handle.isAlive() ? ProcessStats.of(handle) : ProcessStats.UNKNOWN;
+        server.addProperty("pid", handle != null ? handle.pid() : -1);
+        server.addProperty("rssBytes", stats.rssBytes());
+        server.addProperty("cpuMillis", stats.cpuNanos() < 0 ? -1 : stats.cpuNanos() / 1_000_000);
+        snapshot.add("server", server);
+
+        JsonObject traffic = new JsonObject();
+        traffic.addProperty("messagesSent", messagesSent.get());
+        traffic.addProperty("messagesReceived", messagesReceived.get());
+        traffic.addProperty("bytesSent", bytesSent.get());
+        traffic.addProperty("bytesReceived", bytesReceived.get());
+        traffic.addProperty("largestMessageSent", largestMessageSent.get());
+        traffic.addProperty("inFlight", inFlight.size());
+        traffic.addProperty("maxInFlight", maxInFlight.get());
+        DocumentSyncFilter current = sync;
+        if (current != null) {
+            DocumentSyncFilter.Stats syncStats = current.getStats();
+            traffic.addProperty("fromClient", syncStats.received());
+            traffic.addProperty("changesMerged", syncStats.coalesced());
+            traffic.addProperty("requestsCancelled", syncStats.cancelled());
+            traffic.addProperty("peakFromClientPerSecond", syncStats.peakReceivedPerSecond());
+            traffic.addProperty("peakSentPerSecond", syncStats.peakSentPerSecond());
+        }
+        snapshot.add("traffic", traffic);
+
+        JsonObject latencies = new JsonObject();
+        new TreeMap<>(methods).forEach((method, histogram) -> latencies.add(method, histogram.toJson()));
+        snapshot.add("methods", latencies);
+        return snapshot;
+    }
+
+    /**
+     * {@link #snapshot()} as indented JSON.
+     */
+    @NotNull
+    public String toJson() {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(snapshot());
+    }
+
+    /**
+     * Request latencies of one method in buckets of [0,1), [1,2), [2,4) ... ms, the last open-ended.
+     */
+    static final class Histogram {
+
+        static final int BUCKETS = 16;
+
+        private final AtomicLong[] counts = new AtomicLong[BUCKETS];
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = new AtomicLong();
+            }
+        }
+
+        void record(long nanos, boolean error) {
+            count.incrementAndGet();
+            if (error) {
+                errors.incrementAndGet();
+            }
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            counts[bucket(nanos)].incrementAndGet();
+        }
+
+        static int bucket(long nanos) {
+            long millis = nanos / 1_000_000;
+            int bucket = millis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+            return Math.min(bucket, BUCKETS - 1);
+        }
+
+        /**
+         * Upper bound in ms of the bucket holding the given fraction of requests, or -1 if none.
+         */
+        long percentileMillis(double fraction) {
+            long total = count.get();
+            if (total == 0) {
+                return -1;
+            }
+            long target = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i].get();
+                if (seen >= target) {
+                    return i == BUCKETS - 1 ? maxNanos.get() / 1_000_000 : 1L << i;
+                }
+            }
+            return maxNanos.get() / 1_000_000;
+        }
+
+        @NotNull
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            long n = count.get();
+            json.addProperty("count", n);
+            json.addProperty("errors", errors.get());
+            json.addProperty("cancelled", cancelled.get());
+            json.addProperty("meanMillis", n == 0 ? 0 : totalNanos.get() / n / 1_000_000.0);
+            json.addProperty("p50Millis", percentileMillis(0.5));
+            json.addProperty("p95Millis", percentileMillis(0.95));
+            json.addProperty("maxMillis", maxNanos.get() / 1_000_000.0);
+            JsonArray buckets = new JsonArray();
+            for (AtomicLong bucket : counts) {
+                buckets.add(bucket.get());
+            }
+            json.add("buckets", buckets);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.Timer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The "SuperDB LSP" tool window: live {@link LspMetrics} of the project's language server
+ * connection, refreshed every second, with actions to reset the counters and export them as JSON.
+ * Snapshots are taken on a pooled thread, so a stalled server can't hold up the EDT.
+ */
+public class LspMetricsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    private static final Logger LOG = Logger.getInstance(LspMetricsToolWindowFactory.class);
+
+    private static final int REFRESH_MILLIS = 1000;
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        LspMetrics metrics = LspMetrics.getInstance(project);
+
+        JBTextArea text = new JBTextArea();
+        text.setEditable(false);
+        text.setFont(JBUI.Fonts.create("Monospaced", text.getFont().getSize()));
+        // The snapshot reads /proc and the connection's counters, so it is built off the EDT
+        AtomicBoolean refreshing = new AtomicBoolean();
+        Runnable refresh = () -> {
+            if (!refreshing.compareAndSet(false, true)) {
+                return;
+            }
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                try {
+                    String rendered = render(metrics.snapshot());
+                    ApplicationManager.getApplication().invokeLater(() -> text.setText(rendered));
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        };
+
+        DefaultActionGroup actions = new DefaultActionGroup();
+        actions.add(new DumbAwareAction("Refresh", "Show the latest numbers", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refresh.run();
+            }
+        });
+        actions.add(new DumbAwareAction("Reset", "Clear all counters", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                metrics.reset();
+                refresh.run();
+            }
+        });
+        actions.add(new DumbAwareAction("Export JSON", "Save the numbers as JSON", AllIcons.ToolbarDecorator.Export) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                export(project, metrics);
+            }
+        });
+
+        SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("SuperDBLspMetrics", actions, true);
+        toolbar.setTargetComponent(panel);
+        panel.setToolbar(toolbar.getComponent());
+        panel.setContent(new JBScrollPane(text));
+
+        Content content = ContentFactory.getInstance().createContent(panel, "", false);
+        Timer timer = new Timer(REFRESH_MILLIS, e -> {
+            if (toolWindow.isVisible()) {
+                refresh.run();
+            }
+        });
+        timer.start();
+        Disposer.register(content, timer::stop);
+        toolWindow.getContentManager().addContent(content);
+        refresh.run();
+    }
+
+    private static void export(Project project, LspMetrics metrics) {
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Export LSP Metrics", "Save SuperDB LSP metrics as JSON", "json");
+        VirtualFileWrapper target = FileChooserFactory.getInstance()
+                .createSaveFileDialog(descriptor, project)
+                .save("supersql-lsp-metrics.json");
+        if (target == null) {
+            return;
+        }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                Files.writeString(target.getFile().toPath(), metrics.toJson(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                LOG.warn("Could not export LSP metrics", e);
+                ApplicationManager.getApplication().invokeLater(() -> Messages.showErrorDialog(project,
+                        "Could not write " + target.getFile() + ": " + e.getMessage(), "Export LSP Metrics"));
+            }
+        });
+    }
+
+    /**
+     * Lays out a {@link LspMetrics#snapshot()} as plain text.
+     */
+    @NotNull
+    static String render(@NotNull JsonObject snapshot) {
+        StringBuilder out = new StringBuilder();
+        JsonObject server = snapshot.getAsJsonObject("server");
+        long pid = server.get("pid").getAsLong();
+        if (pid < 0) {
+            out.append("Server: not running\n");
+        } else {
+            long rss = server.get("rssBytes").getAsLong();
+            long cpu = server.get("cpuMillis").getAsLong();
+            out.append(String.format("Server: pid %d, RSS %s, CPU %s%n", pid,
+                    rss < 0 ? "?" : rss / (1024 * 1024) + " MB", cpu < 0 ? "?" : cpu + " ms"));
+        }
+
+        out.append('\n');
+        for (Map.Entry<String, JsonElement> entry : snapshot.getAsJsonObject("traffic").entrySet()) {
+            out.append(String.format("%-24s %d%n", entry.getKey(), entry.getValue().getAsLong()));
+        }
+
+        out.append('\n');
+        out.append(String.format("%-32s %7s %6s %6s %9s %8s %8s %8s%n",
+                "Method", "count", "errors", "cancel", "mean ms", "p50 ms", "p95 ms", "max ms"));
+        for (Map.Entry<String, JsonElement> entry : snapshot.getAsJsonObject("methods").entrySet()) {
+            JsonObject histogram = entry.getValue().getAsJsonObject();
+            out.append(String.format("%-32s %7d %6d %6d %9.1f %8s %8s %8.1f%n",
+                    entry.getKey(),
+                    histogram.get("count").getAsLong(),
+                    histogram.get("errors").getAsLong(),
+                    histogram.get("cancelled").getAsLong(),
+                    histogram.get("meanMillis").getAsDouble(),
+                    upTo(histogram.get("p50Millis").getAsLong()),
+                    upTo(histogram.get("p95Millis").getAsLong()),
+                    histogram.get("maxMillis").getAsDouble()));
+        }
+        return out.toString();
+    }
+
+    private static String upTo(long millis) {
+        return millis < 0 ? "-" : "<=" + millis;
+    }
+}
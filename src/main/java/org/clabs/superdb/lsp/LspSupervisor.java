@@ -0,0 +1,262 @@
+package org.clabs.superdb.lsp;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redhat.devtools.lsp4ij.LanguageServerManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a project's language server process and restarts it when it misbehaves.
+ * <p>
+ * Every few seconds the process's resident memory and CPU use are checked against the limits in
+ * {@link SuperSQLLspSettings}; memory past the limit restarts it at once, CPU only once it has
+ * stayed past the limit for {@code maxCpuSeconds}. Memory is only checked where
+ * {@link ProcessStats} can read it, i.e. on Linux. A process that exits without LSP4IJ stopping
+ * it is restarted too. Restarts in quick succession wait twice as long each time, up to
+ * {@code maxRestartBackoffSeconds}; once a server has run for {@link #STABLE_MILLIS} the wait
+ * starts over. Every restart is logged with its reason, the wait and how long the new process
+ * took to come up.
+ * <p>
+ * Only processes started for the project are supervised, not the {@link SharedLanguageServer}.
+ */
+@Service(Service.Level.PROJECT)
+public final class LspSupervisor implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(LspSupervisor.class);
+
+    static final long CHECK_SECONDS = 5;
+    static final long FIRST_BACKOFF_MILLIS = 1000;
+    // Uptime after which the server counts as healthy and the back-off starts over
+    static final long STABLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Project project;
+    private final Runnable restart;
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private ProcessHandle process;
+    private long startedNanos;
+    private ProcessStats lastStats;
+    private long lastSampleNanos;
+    private long busySinceNanos = -1;
+    private ScheduledFuture<?> check;
+    private int quickRestarts;
+    private String restartReason;
+    private long restartRequestedNanos;
+    private long restartBackoffMillis;
+    private ScheduledFuture<?> pendingRestart;
+    private boolean disposed;
+    private boolean warnedNoRss;
+
+    public LspSupervisor(@NotNull Project project) {
+        this(project, () -> {
+            LanguageServerManager manager = LanguageServerManager.getInstance(project);
+            manager.stop(SuperSQLLspWarmUp.SERVER_ID);
+            manager.start(SuperSQLLspWarmUp.SERVER_ID);
+        });
+    }
+
+    /**
+     * A supervisor that runs {@code restart} instead of restarting through LSP4IJ.
+     */
+    LspSupervisor(@NotNull Project project, @NotNull Runnable restart) {
+        this.project = project;
+        this.restart = restart;
+    }
+
+    public static LspSupervisor getInstance(@NotNull Project project) {
+        return project.getService(LspSupervisor.class);
+    }
+
+    /**
+     * Starts watching a newly started server process.
+     */
+    void attach(@NotNull ProcessHandle handle) {
+        synchronized (lock) {
+            if (disposed) {
+                return;
+            }
+            stopChecking();
+            process = handle;
+            startedNanos = System.nanoTime();
+            lastStats = ProcessStats.of(handle);
+            lastSampleNanos = startedNanos;
+            busySinceNanos = -1;
+            if (restartReason != null) {
+                LOG.info("SuperSQL LSP for " + project.getName() + " restarted (" + restartReason + "): pid "
+                        + handle.pid() + " up " + (startedNanos - restartRequestedNanos) / 1_000_000
+                        + " ms after the restart was requested, including " + restartBackoffMillis + " ms back-off");
+                restartReason = null;
+            }
+            check = AppExecutorUtil.getAppScheduledExecutorService()
+                    .scheduleWithFixedDelay(this::check, CHECK_SECONDS, CHECK_SECONDS, TimeUnit.SECONDS);
+        }
+        handle.onExit().thenAccept(this::exited);
+    }
+
+    /**
+     * Stops watching because LSP4IJ is stopping the server; its exit is not a crash unless the
+     * process is already gone.
+     */
+    void detach() {
+        synchronized (lock) {
+            ProcessHandle current = process;
+            stopChecking();
+            process = null;
+            if (current != null && !current.isAlive()) {
+                // LSP4IJ noticed the crash before the exit callback did
+                long uptime = uptimeMillis();
+                requestRestart("exited unexpectedly after " + uptime / 1000 + " s", uptime);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (lock) {
+            disposed = true;
+            stopChecking();
+            process = null;
+            if (pendingRestart != null) {
+                pendingRestart.cancel(false);
+                pendingRestart = null;
+            }
+        }
+    }
+
+    private void exited(ProcessHandle handle) {
+        synchronized (lock) {
+            if (process != handle) {
+                // Stopped on purpose, or already being replaced
+                return;
+            }
+            long uptime = uptimeMillis();
+            stopChecking();
+            process = null;
+            requestRestart("exited unexpectedly after " + uptime / 1000 + " s", uptime);
+        }
+    }
+
+    /**
+     * Samples the process and restarts it if it is past a limit; runs every {@link #CHECK_SECONDS}.
+     */
+    void check() {
+        ProcessHandle handle;
+        ProcessStats previous;
+        long previousNanos;
+        synchronized (lock) {
+            handle = process;
+            previous = lastStats;
+            previousNanos = lastSampleNanos;
+        }
+        if (handle == null || !handle.isAlive()) {
+            return;
+        }
+        ProcessStats stats = ProcessStats.of(handle);
+        long now = System.nanoTime();
+        SuperSQLLspSettings settings = SuperSQLLspSettings.getInstance();
+        int cpuPercent = cpuPercent(previous, previousNanos, stats, now);
+
+        synchronized (lock) {
+            if (process != handle) {
+                return;
+            }
+            lastStats = stats;
+            lastSampleNanos = now;
+            String reason = null;
+            long maxMemoryBytes = settings.getMaxMemoryMb() * 1024L * 1024L;
+            if (maxMemoryBytes > 0 && !ProcessStats.RSS_READABLE && !warnedNoRss) {
+                warnedNoRss = true;
+                LOG.info("Resident memory of the SuperSQL LSP can't be read on " + System.getProperty("os.name")
+                        + "; the " + settings.getMaxMemoryMb() + " MB limit is not applied");
+            }
+            if (maxMemoryBytes > 0 && stats.rssBytes() > maxMemoryBytes) {
+                reason = "resident memory " + stats.rssBytes() / (1024 * 1024) + " MB over the "
+                        + settings.getMaxMemoryMb() + " MB limit";
+            } else if (settings.getMaxCpuPercent() > 0 && cpuPercent >= settings.getMaxCpuPercent()) {
+                if (busySinceNanos < 0) {
+                    busySinceNanos = previousNanos;
+                }
+                long busySeconds = (now - busySinceNanos) / 1_000_000_000L;
+                if (busySeconds >= settings.getMaxCpuSeconds()) {
+                    reason = "CPU at " + cpuPercent + "% for " + busySeconds + " s, over the "
+                            + settings.getMaxCpuPercent() + "% limit";
+                }
+            } else {
+                busySinceNanos = -1;
+            }
+            if (reason == null) {
+                return;
+            }
+            long uptime = uptimeMillis();
+            stopChecking();
+            process = null;
+            requestRestart(reason + " (" + stats + ")", uptime);
+        }
+    }
+
+    private void requestRestart(String reason, long uptimeMillis) {
+        if (disposed || project.isDisposed()) {
+            return;
+        }
+        quickRestarts = uptimeMillis >= STABLE_MILLIS ? 1 : quickRestarts + 1;
+        long maxBackoff = SuperSQLLspSettings.getInstance().getMaxRestartBackoffSeconds() * 1000L;
+        restartBackoffMillis = backoffMillis(quickRestarts, maxBackoff);
+        restartReason = reason;
+        restartRequestedNanos = System.nanoTime();
+        LOG.warn("Restarting SuperSQL LSP for " + project.getName() + " in " + restartBackoffMillis + " ms: "
+                + reason + (quickRestarts > 1 ? ", restart " + quickRestarts + " in a row" : ""));
+        pendingRestart = AppExecutorUtil.getAppScheduledExecutorService()
+                .schedule(this::restartNow, restartBackoffMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void restartNow() {
+        synchronized (lock) {
+            pendingRestart = null;
+            if (disposed || project.isDisposed()) {
+                return;
+            }
+        }
+        restart.run();
+    }
+
+    private void stopChecking() {
+        if (check != null) {
+            check.cancel(false);
+            check = null;
+        }
+    }
+
+    private long uptimeMillis() {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+    /**
+     * Wait before the {@code restart}th restart in a row: none for the first, then 1 s, 2 s,
+     * 4 s ... up to {@code maxMillis}.
+     */
+    static long backoffMillis(int restart, long maxMillis) {
+        if (restart <= 1) {
+            return 0;
+        }
+        int doublings = Math.min(restart - 2, 30);
+        return Math.min(FIRST_BACKOFF_MILLIS << doublings, maxMillis);
+    }
+
+    /**
+     * CPU use between two samples in percent of one core, or -1 if the OS doesn't report it.
+     */
+    static int cpuPercent(@Nullable ProcessStats before, long beforeNanos, @NotNull ProcessStats after, long afterNanos) {
+        if (before == null || before.cpuNanos() < 0 || after.cpuNanos() < 0 || afterNanos <= beforeNanos) {
+            return -1;
+        }
+        return (int) ((after.cpuNanos() - before.cpuNanos()) * 100 / (afterNanos - beforeNanos));
+    }
+}
@@ -0,0 +1,79 @@
+package org.clabs.superdb.lsp;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Input stream fed with whole frames by another thread, read by LSP4IJ as a server's output.
+ * <p>
+ * Unlike a {@link java.io.PipedInputStream} it is not tied to the writing thread, so frames can
+ * be delivered from whichever thread routes them. {@link #close()} ends the stream once the
+ * frames already queued have been read.
+ */
+final class MessageInputStream extends InputStream {
+
+    private static final byte[] EOF = new byte[0];
+
+    private final LinkedBlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+    private byte[] current = new byte[0];
+    private int position;
+    private volatile boolean closed;
+
+    /**
+     * Queues a frame for reading. Ignored once the stream is closed.
+     */
+    void deliver(byte @NotNull [] frame) {
+        if (!closed) {
+            frames.add(frame);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte @NotNull [] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == current.length) {
+            if (current == EOF) {
+                return -1;
+            }
+            try {
+                current = frames.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            position = 0;
+            if (current == EOF) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            frames.add(EOF);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.clabs.superdb.lsp;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Resident memory and CPU time of a language server process, read without starting helper
+ * processes.
+ *
+ * @param rssBytes resident set size, or -1 where it can't be read (only Linux /proc is read)
+ * @param cpuNanos total CPU time so far, or -1 if the OS doesn't report it
+ */
+record ProcessStats(long rssBytes, long cpuNanos) {
+
+    static final ProcessStats UNKNOWN = new ProcessStats(-1, -1);
+
+    // Resident memory comes from /proc, which only Linux has
+    static final boolean RSS_READABLE = Files.isDirectory(Path.of("/proc/self"));
+
+    /**
+     * Current figures for {@code process}.
+     */
+    @NotNull
+    static ProcessStats of(@NotNull ProcessHandle process) {
+        long cpu = process.info().totalCpuDuration().map(Duration::toNanos).orElse(-1L);
+        return new ProcessStats(readRss(process.pid()), cpu);
+    }
+
+    private static long readRss(long pid) {
+        if (!RSS_READABLE) {
+            return -1;
+        }
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                // VmRSS:     12345 kB
+                if (line.startsWith("VmRSS:")) {
+                    String[] parts = line.substring("VmRSS:".length()).trim().split("\\s+");
+                    return Long.parseLong(parts[0]) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Process exited or an unexpected format
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "rss=" + (rssBytes < 0 ? "?" : rssBytes / (1024 * 1024) + "MB")
+                + " cpu=" + (cpuNanos < 0 ? "?" : cpuNanos / 1_000_000 + "ms");
+    }
+}
@@ -0,0 +1,620 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One superdb-lsp process serving every open project, used when
+ * {@link SuperSQLLspSettings#isSharedServer()} is on.
+ * <p>
+ * Each project's LSP4IJ connection is a {@link Client} whose JSON-RPC messages are multiplexed
+ * onto the process: request ids are renumbered so responses find their way back, the first
+ * {@code initialize} is sent to the server and its result replayed to later projects, whose
+ * roots are added with {@code workspace/didChangeWorkspaceFolders} instead. Requests from the
+ * server go to the longest attached project, and diagnostics to the projects that have the
+ * document open. A document open in several projects is opened on the server by the first and
+ * closed by the last. Its edits reach the server once, from the project that owns it there: the
+ * first to open it, then the next one to have it open when the owner closes it or leaves. When
+ * the last project disconnects the process is shut down after
+ * {@link SuperSQLLspSettings#getSharedServerIdleSeconds()}.
+ */
+@Service(Service.Level.APP)
+public final class SharedLanguageServer implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(SharedLanguageServer.class);
+
+    private static final byte[] STOP_WRITER = new byte[0];
+
+    private record Pending(Client client, JsonElement id) {
+    }
+
+    // Notifications about a document's contents, forwarded only from the document's owner
+    private static final Set<String> DOCUMENT_EDITS = Set.of(
+            "textDocument/didChange",
+            "textDocument/willSave",
+            "textDocument/didSave"
+    );
+
+    private final Object lock = new Object();
+    private final Callable<Process> launcher;
+
+    // All fields below are guarded by lock
+    private Process process;
+    private LinkedBlockingQueue<byte[]> toServer;
+    private final List<Client> clients = new ArrayList<>();
+    // The client whose didOpen the server got, by document URI
+    private final Map<String, Client> documentOwners = new HashMap<>();
+    // Renumbered client requests, by the id sent to the server
+    private final Map<Long, Pending> requests = new HashMap<>();
+    // Server requests forwarded to a client, by the id the client sees
+    private final Map<Long, JsonElement> serverRequests = new HashMap<>();
+    private long nextId;
+    private long initializeId = -1;
+    private JsonElement initializeResult;
+    private final List<Pending> waitingForInitialize = new ArrayList<>();
+    private boolean initializedSent;
+    private ScheduledFuture<?> idleShutdown;
+    private int projectsServed;
+
+    public SharedLanguageServer() {
+        this(() -> {
+            String binary = SuperSQLLspBinaryLocator.getInstance().getBinary();
+            LOG.info("Starting shared SuperSQL LSP: " + binary);
+            return new ProcessBuilder(binary)
+                    .directory(new File(System.getProperty("user.home")))
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+        });
+    }
+
+    /**
+     * A server whose process is started by {@code launcher} instead of from the located binary.
+     */
+    SharedLanguageServer(@NotNull Callable<Process> launcher) {
+        this.launcher = launcher;
+    }
+
+    public static SharedLanguageServer getInstance() {
+        return ApplicationManager.getApplication().getService(SharedLanguageServer.class);
+    }
+
+    /**
+     * Connects a project, starting the process if it isn't running.
+     *
+     * @param rootUri the project's root as a file URI, or null if it has none
+     */
+    @NotNull
+    Client attach(@NotNull String name, @Nullable String rootUri) throws IOException {
+        synchronized (lock) {
+            if (idleShutdown != null) {
+                idleShutdown.cancel(false);
+                idleShutdown = null;
+            }
+            if (process == null || !process.isAlive()) {
+                start();
+            }
+            Client client = new Client(this, name, rootUri);
+            clients.add(client);
+            projectsServed++;
+            LOG.info("Shared SuperSQL LSP pid " + process.pid() + " now serving " + clients.size()
+                    + " project(s), added " + name + " (" + ProcessStats.of(process.toHandle()) + ")");
+            return client;
+        }
+    }
+
+    /**
+     * Disconnects a project; the process stays up for other projects or until it has been idle.
+     */
+    void detach(@NotNull Client client) {
+        synchronized (lock) {
+            detachLocked(client);
+        }
+    }
+
+    /**
+     * The running process, if any.
+     */
+    @Nullable
+    Process getProcess() {
+        synchronized (lock) {
+            return process;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (lock) {
+            if (process != null) {
+                process.destroy();
+            }
+        }
+    }
+
+    private void start() throws IOException {
+        Process started;
+        try {
+            started = launcher.call();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        process = started;
+        toServer = new LinkedBlockingQueue<>();
+        documentOwners.clear();
+        requests.clear();
+        serverRequests.clear();
+        waitingForInitialize.clear();
+        initializeId = -1;
+        initializeResult = null;
+        initializedSent = false;
+        projectsServed = 0;
+
+        LinkedBlockingQueue<byte[]> queue = toServer;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> writeLoop(started, queue));
+        ApplicationManager.getApplication().executeOnPooledThread(() -> readLoop(started));
+    }
+
+    // === Client to server ===
+
+    private void fromClient(Client client, JsonObject message) {
+        String method = LspFrames.method(message);
+        JsonElement id = message.get("id");
+        synchronized (lock) {
+            if (client.detached) {
+                return;
+            }
+            if (method == null) {
+                // Response to a server request
+                JsonElement serverId = id != null && id.isJsonPrimitive() ? serverRequests.remove(id.getAsLong()) : null;
+                if (serverId != null) {
+                    message.add("id", serverId);
+                    send(message);
+                }
+            } else if (id == null) {
+                fromClientNotification(client, method, message);
+            } else if (method.equals("initialize")) {
+                initialize(client, id, message);
+            } else if (method.equals("shutdown")) {
+                // Only the last project to leave stops the server, after the idle timeout
+                client.deliver(response(id, JsonNull.INSTANCE));
+            } else {
+                long serverId = ++nextId;
+                requests.put(serverId, new Pending(client, id));
+                message.addProperty("id", serverId);
+                send(message);
+            }
+        }
+    }
+
+    private void fromClientNotification(Client client, String method, JsonObject message) {
+        JsonObject params = message.get("params") instanceof JsonObject object ? object : null;
+        switch (method) {
+            case "initialized" -> {
+                if (!initializedSent) {
+                    initializedSent = true;
+                    send(message);
+                }
+            }
+            case "exit" -> detachLocked(client);
+            case "$/cancelRequest" -> {
+                Long serverId = params != null ? findRequest(client, params.get("id")) : null;
+                if (serverId != null) {
+                    params.addProperty("id", serverId);
+                    send(message);
+                }
+            }
+            case "textDocument/didOpen" -> {
+                // The server sees a document opened by the first project and closed by the last
+                String uri = documentUri(params);
+                if (uri == null) {
+                    send(message);
+                } else if (client.openDocuments.add(uri) && !documentOwners.containsKey(uri)) {
+                    documentOwners.put(uri, client);
+                    send(message);
+                }
+            }
+            case "textDocument/didClose" -> {
+                String uri = documentUri(params);
+                if (uri == null) {
+                    send(message);
+                } else if (client.openDocuments.remove(uri) && documentOwners.get(uri) == client) {
+                    closeOrHandOver(client, uri);
+                }
+            }
+            default -> {
+                // Every project with the document open sends the same edits; the server needs one copy
+                String uri = DOCUMENT_EDITS.contains(method) ? documentUri(params) : null;
+                Client owner = uri != null ? documentOwners.get(uri) : null;
+                if (owner == null || owner == client) {
+                    send(message);
+                }
+            }
+        }
+    }
+
+    private void initialize(Client client, JsonElement id, JsonObject message) {
+        if (initializeResult != null) {
+            client.deliver(response(id, initializeResult));
+            changeWorkspaceFolder(client, true);
+        } else if (initializeId >= 0) {
+            waitingForInitialize.add(new Pending(client, id));
+        } else {
+            initializeId = ++nextId;
+            requests.put(initializeId, new Pending(client, id));
+            message.addProperty("id", initializeId);
+            send(message);
+        }
+    }
+
+    @Nullable
+    private Long findRequest(Client client, @Nullable JsonElement clientId) {
+        for (Map.Entry<Long, Pending> entry : requests.entrySet()) {
+            if (entry.getValue().client == client && entry.getValue().id.equals(clientId)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    // === Server to client ===
+
+    private void fromServer(Process source, JsonObject message) {
+        String method = LspFrames.method(message);
+        JsonElement id = message.get("id");
+        synchronized (lock) {
+            if (source != process) {
+                return;
+            }
+            if (method == null) {
+                fromServerResponse(id, message);
+            } else if (id != null) {
+                Client owner = clients.isEmpty() ? null : clients.get(0);
+                if (owner == null) {
+                    send(error(id, "No project connected to the shared server"));
+                    return;
+                }
+                long clientId = ++nextId;
+                serverRequests.put(clientId, id);
+                message.addProperty("id", clientId);
+                owner.deliver(message);
+            } else {
+                for (Client client : recipients(documentUri(message.get("params") instanceof JsonObject params ? params : null))) {
+                    client.deliver(message);
+                }
+            }
+        }
+    }
+
+    private void fromServerResponse(@Nullable JsonElement id, JsonObject message) {
+        if (id == null || !id.isJsonPrimitive()) {
+            return;
+        }
+        long serverId = id.getAsLong();
+        Pending pending = requests.remove(serverId);
+        if (serverId == initializeId) {
+            initializeResult = message.get("result");
+            for (Pending waiting : waitingForInitialize) {
+                if (!waiting.client.detached) {
+                    waiting.client.deliver(response(waiting.id, initializeResult));
+                    changeWorkspaceFolder(waiting.client, true);
+                }
+            }
+            waitingForInitialize.clear();
+        }
+        if (pending != null && !pending.client.detached) {
+            message.add("id", pending.id);
+            pending.client.deliver(message);
+        }
+    }
+
+    /**
+     * Clients a notification about {@code uri} goes to: those with the document open, else those
+     * whose root contains it, else the longest attached client.
+     */
+    private List<Client> recipients(@Nullable String uri) {
+        if (clients.isEmpty()) {
+            return List.of();
+        }
+        if (uri != null) {
+            List<Client> open = new ArrayList<>();
+            List<Client> inRoot = new ArrayList<>();
+            for (Client client : clients) {
+                if (client.openDocuments.contains(uri)) {
+                    open.add(client);
+                } else if (client.rootUri != null && uri.startsWith(client.rootUri)) {
+                    inRoot.add(client);
+                }
+            }
+            if (!open.isEmpty()) {
+                return open;
+            }
+            if (!inRoot.isEmpty()) {
+                return inRoot;
+            }
+        }
+        return List.of(clients.get(0));
+    }
+
+    // === Lifecycle ===
+
+    private void detachLocked(Client client) {
+        if (client.detached) {
+            return;
+        }
+        client.detached = true;
+        clients.remove(client);
+        client.input.close();
+        requests.values().removeIf(pending -> pending.client == client);
+        waitingForInitialize.removeIf(pending -> pending.client == client);
+        if (process == null) {
+            return;
+        }
+
+        // Close or hand over what this project owned, then drop its root
+        for (String uri : client.openDocuments) {
+            if (documentOwners.get(uri) == client) {
+                closeOrHandOver(client, uri);
+            }
+        }
+        changeWorkspaceFolder(client, false);
+        LOG.info("Shared SuperSQL LSP detached " + client.name + ", " + clients.size() + " project(s) left");
+
+        if (clients.isEmpty()) {
+            int idleSeconds = SuperSQLLspSettings.getInstance().getSharedServerIdleSeconds();
+            Process idle = process;
+            idleShutdown = AppExecutorUtil.getAppScheduledExecutorService()
+                    .schedule(() -> stopIfIdle(idle), idleSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Passes {@code uri} from its owner {@code client} to the longest attached client that still
+     * has it open, or closes it on the server if none has.
+     */
+    private void closeOrHandOver(Client client, String uri) {
+        for (Client other : clients) {
+            if (other != client && other.openDocuments.contains(uri)) {
+                documentOwners.put(uri, other);
+                return;
+            }
+        }
+        documentOwners.remove(uri);
+        JsonObject document = new JsonObject();
+        document.addProperty("uri", uri);
+        JsonObject params = new JsonObject();
+        params.add("textDocument", document);
+        send(notification("textDocument/didClose", params));
+    }
+
+    private void stopIfIdle(Process idle) {
+        synchronized (lock) {
+            if (idle != process || !clients.isEmpty()) {
+                return;
+            }
+            LOG.info("Stopping idle shared SuperSQL LSP pid " + idle.pid() + " after serving " + projectsServed
+                    + " project(s) (" + ProcessStats.of(idle.toHandle()) + ")");
+            if (initializedSent) {
+                send(request(++nextId, "shutdown", null));
+                send(notification("exit", null));
+            }
+            toServer.add(STOP_WRITER);
+            process = null;
+        }
+        // Give the server a moment to exit by itself
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(idle::destroy, 2, TimeUnit.SECONDS);
+    }
+
+    private void onExit(Process exited) {
+        synchronized (lock) {
+            if (exited != process) {
+                return;
+            }
+            LOG.warn("Shared SuperSQL LSP exited with " + exited.exitValue() + " while serving "
+                    + clients.size() + " project(s)");
+            process = null;
+            toServer.add(STOP_WRITER);
+            // Ending the streams lets LSP4IJ notice and restart each project's server
+            for (Client client : clients) {
+                client.detached = true;
+                client.input.close();
+            }
+            clients.clear();
+        }
+    }
+
+    private void readLoop(Process source) {
+        LspFrames.Decoder decoder = new LspFrames.Decoder();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = source.getInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                decoder.feed(buffer, 0, n, message -> fromServer(source, message));
+            }
+        } catch (IOException e) {
+            LOG.debug("Shared SuperSQL LSP output closed", e);
+        }
+        try {
+            source.waitFor(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!source.isAlive()) {
+            onExit(source);
+        }
+    }
+
+    private static void writeLoop(Process target, LinkedBlockingQueue<byte[]> queue) {
+        try (OutputStream out = target.getOutputStream()) {
+            while (true) {
+                byte[] frame = queue.take();
+                if (frame == STOP_WRITER) {
+                    return;
+                }
+                out.write(frame);
+                if (queue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("Shared SuperSQL LSP input closed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(JsonObject message) {
+        if (toServer != null) {
+            toServer.add(LspFrames.encode(message));
+        }
+    }
+
+    private void changeWorkspaceFolder(Client client, boolean added) {
+        if (client.rootUri == null) {
+            return;
+        }
+        JsonObject folder = new JsonObject();
+        folder.addProperty("uri", client.rootUri);
+        folder.addProperty("name", client.name);
+        JsonArray changed = new JsonArray();
+        changed.add(folder);
+        JsonObject event = new JsonObject();
+        event.add("added", added ? changed : new JsonArray());
+        event.add("removed", added ? new JsonArray() : changed);
+        JsonObject params = new JsonObject();
+        params.add("event", event);
+        send(notification("workspace/didChangeWorkspaceFolders", params));
+    }
+
+    @Nullable
+    private static String documentUri(@Nullable JsonObject params) {
+        if (params == null) {
+            return null;
+        }
+        JsonElement uri = params.get("uri");
+        if (uri == null && params.get("textDocument") instanceof JsonObject document) {
+            uri = document.get("uri");
+        }
+        return uri != null && uri.isJsonPrimitive() ? uri.getAsString() : null;
+    }
+
+    private static JsonObject response(JsonElement id, JsonElement result) {
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("id", id);
+        response.add("result", result);
+        return response;
+    }
+
+    private static JsonObject error(JsonElement id, String text) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", -32603);
+        error.addProperty("message", text);
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("id", id);
+        response.add("error", error);
+        return response;
+    }
+
+    private static JsonObject request(long id, String method, @Nullable JsonObject params) {
+        JsonObject request = notification(method, params);
+        request.addProperty("id", id);
+        return request;
+    }
+
+    private static JsonObject notification(String method, @Nullable JsonObject params) {
+        JsonObject notification = new JsonObject();
+        notification.addProperty("jsonrpc", "2.0");
+        notification.addProperty("method", method);
+        if (params != null) {
+            notification.add("params", params);
+        }
+        return notification;
+    }
+
+    /**
+     * One project's connection to the shared process.
+     */
+    static final class Client {
+
+        private final SharedLanguageServer server;
+        private final String name;
+        @Nullable private final String rootUri;
+        private final MessageInputStream input = new MessageInputStream();
+        private final OutputStream output;
+        // Guarded by the server's lock
+        private final Set<String> openDocuments = new HashSet<>();
+        private volatile boolean detached;
+
+        private Client(SharedLanguageServer server, String name, @Nullable String rootUri) {
+            this.server = server;
+            this.name = name;
+            this.rootUri = rootUri;
+            LspFrames.Decoder decoder = new LspFrames.Decoder();
+            this.output = new OutputStream() {
+                @Override
+                public void write(int b) {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte @NotNull [] b, int off, int len) {
+                    synchronized (decoder) {
+                        decoder.feed(b, off, len, message -> server.fromClient(Client.this, message));
+                    }
+                }
+            };
+        }
+
+        /**
+         * What LSP4IJ reads as the server's output.
+         */
+        InputStream getInputStream() {
+            return input;
+        }
+
+        /**
+         * What LSP4IJ writes as the server's input.
+         */
+        OutputStream getOutputStream() {
+            return output;
+        }
+
+        boolean isDetached() {
+            return detached;
+        }
+
+        void detach() {
+            server.detach(this);
+        }
+
+        private void deliver(JsonObject message) {
+            input.deliver(LspFrames.encode(message));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.clabs.superdb.lsp;
+
+import com.intellij.openapi.project.Project;
+import com.redhat.devtools.lsp4ij.server.StreamConnectionProvider;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Connects one project to the {@link SharedLanguageServer} instead of starting its own process.
+ */
+class SharedServerConnectionProvider implements StreamConnectionProvider {
+
+    private final String name;
+    @Nullable private final String rootUri;
+    private final DocumentSyncFilter sync;
+    private volatile SharedLanguageServer.Client client;
+
+    SharedServerConnectionProvider(Project project, DocumentSyncFilter sync) {
+        this.name = project.getName();
+        this.sync = sync;
+        String basePath = project.getBasePath();
+        this.rootUri = basePath != null ? Path.of(basePath).toUri().toString() : null;
+    }
+
+    @Override
+    public void start() {
+        try {
+            client = SharedLanguageServer.getInstance().attach(name, rootUri);
+        } catch (IOException e) {
+            // Look for the binary again next time, it may have moved or been removed
+            SuperSQLLspBinaryLocator.getInstance().invalidate();
+            throw new UncheckedIOException("Cannot start shared SuperSQL LSP", e);
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        SharedLanguageServer.Client current = client;
+        return current != null ? sync.fromServer(current.getInputStream()) : null;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        SharedLanguageServer.Client current = client;
+        return current != null ? sync.toServer(current.getOutputStream()) : null;
+    }
+
+    public boolean isAlive() {
+        SharedLanguageServer.Client current = client;
+        return current != null && !current.isDetached();
+    }
+
+    @Override
+    public void stop() {
+        SharedLanguageServer.Client current = client;
+        sync.close();
+        if (current != null) {
+            current.detach();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.clabs.superdb.lsp;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.SystemInfo;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Finds the superdb-lsp binary to launch, once per IDE session.
+ * <p>
+ * Candidates in order of precedence:
+ * 1. System property supersql.lsp.path
+ * 2. Custom path from {@link SuperSQLLspSettings}
+ * 3. Bundled binary installed from plugin resources (see {@link BundledLspBinary})
+ * 4. superdb-lsp, then super-lsp, in the PATH
+ * <p>
+ * PATH is scanned in the JVM rather than by running {@code which}. The result is remembered
+ * together with the custom paths it was found for, so changing either one in the settings or
+ * the system property takes effect on the next server start. A binary that fails to start is
+ * forgotten and looked up again.
+ */
+@Service(Service.Level.APP)
+public final class SuperSQLLspBinaryLocator {
+
+    private static final Logger LOG = Logger.getInstance(SuperSQLLspBinaryLocator.class);
+
+    static final String LSP_BINARY_NAME = "superdb-lsp";
+    static final String LSP_BINARY_NAME_ALT = "super-lsp";
+    static final String LSP_PATH_PROPERTY = "supersql.lsp.path";
+
+    private record Resolved(@Nullable String propertyPath, @Nullable String settingsPath, @NotNull String binary) {
+    }
+
+    private volatile Resolved resolved;
+
+    public static SuperSQLLspBinaryLocator getInstance() {
+        return ApplicationManager.getApplication().getService(SuperSQLLspBinaryLocator.class);
+    }
+
+    /**
+     * The binary to launch: an absolute path, or a bare command name if nothing was found.
+     */
+    @NotNull
+    public String getBinary() {
+        String propertyPath = System.getProperty(LSP_PATH_PROPERTY);
+        String settingsPath = SuperSQLLspSettings.getInstance().getCustomLspPath();
+        Resolved current = resolved;
+        if (current != null && Objects.equals(current.propertyPath, propertyPath)
+                && Objects.equals(current.settingsPath, settingsPath)) {
+            return current.binary;
+        }
+        String binary = find(propertyPath, settingsPath);
+        resolved = new Resolved(propertyPath, settingsPath, binary);
+        return binary;
+    }
+
+    /**
+     * Forgets the resolved binary, for example after it failed to start.
+     */
+    public void invalidate() {
+        resolved = null;
+    }
+
+    private static String find(@Nullable String propertyPath, @Nullable String settingsPath) {
+        // 1. Check system property
+        if (isUsable(propertyPath, "system property " + LSP_PATH_PROPERTY)) {
+            LOG.info("Using custom LSP path: " + propertyPath);
+            return propertyPath;
+        }
+
+        // 2. Check settings
+        if (isUsable(settingsPath, "settings")) {
+            LOG.info("Using LSP path from settings: " + settingsPath);
+            return settingsPath;
+        }
+
+        // 3. Try bundled binary
+        try {
+            Path bundledPath = BundledLspBinary.get();
+            if (bundledPath != null) {
+                LOG.info("Using bundled LSP binary: " + bundledPath);
+                return bundledPath.toString();
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to install bundled LSP binary", e);
+        }
+
+        // 4. Fall back to system PATH (try both binary names)
+        for (String name : new String[]{LSP_BINARY_NAME, LSP_BINARY_NAME_ALT}) {
+            Path inPath = findInPath(name, System.getenv("PATH"));
+            if (inPath != null) {
+                LOG.info("Using LSP binary from PATH: " + inPath);
+                return inPath.toString();
+            }
+        }
+        LOG.warn("No LSP binary found, trying " + LSP_BINARY_NAME_ALT + " as a command");
+        return LSP_BINARY_NAME_ALT;
+    }
+
+    private static boolean isUsable(@Nullable String path, String source) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+        File file = new File(path);
+        if (file.isFile() && file.canExecute()) {
+            return true;
+        }
+        LOG.warn("Custom LSP path from " + source + " not found or not executable: " + path);
+        return false;
+    }
+
+    /**
+     * Looks for an executable named {@code name} (or {@code name.exe} on Windows) in the
+     * directories of {@code pathVariable}, in order.
+     */
+    @Nullable
+    public static Path findInPath(@NotNull String name, @Nullable String pathVariable) {
+        if (pathVariable == null || pathVariable.isEmpty()) {
+            return null;
+        }
+        String fileName = SystemInfo.isWindows ? name + ".exe" : name;
+        for (String dir : pathVariable.split(File.pathSeparator)) {
+            if (dir.isEmpty()) {
+                continue;
+            }
+            try {
+                Path candidate = Path.of(dir, fileName);
+                if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                    return candidate;
+                }
+            } catch (InvalidPathException e) {
+                // Malformed PATH entry
+            }
+        }
+        return null;
+    }
+}
@@ -27,6 +27,30 @@ public final class SuperSQLLspSettings implements PersistentStateComponent<Super
 
         /** Whether to show LSP status notifications */
         public boolean showNotifications = true;
+
+        /** Whether to start the LSP in the background when a project with .spq files opens */
+        public boolean warmUp = true;
+
+        /** How long to hold document changes to merge them before sending, in ms (0 = send at once) */
+        public int changeDebounceMillis = 100;
+
+        /** Whether all projects share one LSP process instead of starting one each */
+        public boolean sharedServer = false;
+
+        /** How long the shared LSP process outlives its last project, in seconds */
+        public int sharedServerIdleSeconds = 300;
+
+        /** Resident memory in MB past which the LSP is restarted (0 = no limit) */
+        public int maxMemoryMb = 2048;
+
+        /** CPU use, in percent of one core, past which the LSP is restarted if it lasts (0 = no limit) */
+        public int maxCpuPercent = 95;
+
+        /** How long CPU use must stay past the limit before a restart, in seconds */
+        public int maxCpuSeconds = 120;
+
+        /** Longest wait before restarting an LSP that keeps crashing, in seconds */
+        public int maxRestartBackoffSeconds = 300;
     }
 
     private State myState = new State();
@@ -68,4 +92,68 @@ public final class SuperSQLLspSettings implements PersistentStateComponent<Super
     public void setShowNotifications(boolean show) {
         myState.showNotifications = show;
     }
+
+    public boolean isWarmUp() {
+        return myState.warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        myState.warmUp = warmUp;
+    }
+
+    public int getChangeDebounceMillis() {
+        return Math.max(0, myState.changeDebounceMillis);
+    }
+
+    public void setChangeDebounceMillis(int millis) {
+        myState.changeDebounceMillis = millis;
+    }
+
+    public boolean isSharedServer() {
+        return myState.sharedServer;
+    }
+
+    public void setSharedServer(boolean shared) {
+        myState.sharedServer = shared;
+    }
+
+    public int getSharedServerIdleSeconds() {
+        return Math.max(0, myState.sharedServerIdleSeconds);
+    }
+
+    public void setSharedServerIdleSeconds(int seconds) {
+        myState.sharedServerIdleSeconds = seconds;
+    }
+
+    public int getMaxMemoryMb() {
+        return Math.max(0, myState.maxMemoryMb);
+    }
+
+    public void setMaxMemoryMb(int mb) {
+        myState.maxMemoryMb = mb;
+    }
+
+    public int getMaxCpuPercent() {
+        return Math.max(0, myState.maxCpuPercent);
+    }
+
+    public void setMaxCpuPercent(int percent) {
+        myState.maxCpuPercent = percent;
+    }
+
+    public int getMaxCpuSeconds() {
+        return Math.max(0, myState.maxCpuSeconds);
+    }
+
+    public void setMaxCpuSeconds(int seconds) {
+        myState.maxCpuSeconds = seconds;
+    }
+
+    public int getMaxRestartBackoffSeconds() {
+        return Math.max(1, myState.maxRestartBackoffSeconds);
+    }
+
+    public void setMaxRestartBackoffSeconds(int seconds) {
+        myState.maxRestartBackoffSeconds = seconds;
+    }
 }
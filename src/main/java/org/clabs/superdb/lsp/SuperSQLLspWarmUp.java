@@ -0,0 +1,81 @@
+package org.clabs.superdb.lsp;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redhat.devtools.lsp4ij.LanguageServerManager;
+import org.clabs.superdb.SuperSQLQueryFileType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Starts the SuperSQL language server in the background when a project with .spq files opens.
+ * <p>
+ * LSP4IJ otherwise starts the server when the first .spq file is opened, so the first
+ * completion or hover also waits for the binary to be located or installed, the process to
+ * spawn and the server to initialize. The warm-up does all of that up front, as a cancellable
+ * background task that ends with the project. Turn it off with {@code warmUp} in the LSP
+ * settings to compare the time to the first completion, which {@link LspMetrics} logs either way.
+ */
+public class SuperSQLLspWarmUp implements StartupActivity, DumbAware {
+
+    private static final Logger LOG = Logger.getInstance(SuperSQLLspWarmUp.class);
+
+    /**
+     * Server id from supersql-lsp.xml.
+     */
+    static final String SERVER_ID = "supersql-lsp";
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        long opened = System.nanoTime();
+        LspMetrics.getInstance(project).projectOpened(opened);
+        SuperSQLLspSettings settings = SuperSQLLspSettings.getInstance();
+        if (ApplicationManager.getApplication().isUnitTestMode() || !settings.isEnabled() || !settings.isWarmUp()) {
+            return;
+        }
+        ReadAction.nonBlocking(() -> FileTypeIndex.containsFileOfType(SuperSQLQueryFileType.INSTANCE,
+                        GlobalSearchScope.projectScope(project)))
+                .inSmartMode(project)
+                .expireWith(project)
+                .submit(AppExecutorUtil.getAppExecutorService())
+                .onSuccess(hasQueries -> {
+                    if (hasQueries) {
+                        new WarmUpTask(project, opened).queue();
+                    }
+                });
+    }
+
+    private static final class WarmUpTask extends Task.Backgroundable {
+
+        private final long opened;
+
+        WarmUpTask(@NotNull Project project, long opened) {
+            super(project, "Starting SuperSQL language server", true);
+            this.opened = opened;
+        }
+
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+            Project project = getProject();
+            long start = System.nanoTime();
+            String binary = SuperSQLLspBinaryLocator.getInstance().getBinary();
+            long resolved = System.nanoTime();
+            indicator.checkCanceled();
+            if (project.isDisposed()) {
+                return;
+            }
+            LanguageServerManager.getInstance(project).start(SERVER_ID);
+            LOG.info("SuperSQL LSP warm-up for " + project.getName() + ": " + binary + " resolved in "
+                    + (resolved - start) / 1_000_000 + " ms, server start requested "
+                    + (System.nanoTime() - opened) / 1_000_000 + " ms after project open");
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package org.clabs.superdb.parser;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.LightPsiParser;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiParser;
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.clabs.superdb.SuperSQLLexerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+import static org.clabs.superdb.psi.SuperJSONTypes.*;
+import static org.clabs.superdb.psi.SuperSQLTypes.*;
+
+/**
+ * Hand-written parser for SuperJSON (.sup) data files.
+ * <p>
+ * The grammar is deliberately flat - a file is a sequence of values:
+ * <pre>
+ * file     ::= (value | query_fragment)*
+ * value    ::= primary (('::' type) | ('::=' type))*
+ * primary  ::= record | array | set | map | type_value | error_value | literal
+ * record   ::= '{' (field (',' field)*)? '}'
+ * field    ::= field_name ':' value
+ * array    ::= '[' (value (',' value)*)? ']'
+ * set      ::= '|[' (value (',' value)*)? ']|'
+ * map      ::= '|{' (value ':' value (',' value ':' value)*)? '}|'
+ * </pre>
+ * Types after a cast or decorator are skipped as opaque token groups rather than parsed.
+ * <p>
+ * Query text (operators, declarations) is never parsed as a query. A line that starts with
+ * a query keyword is wrapped in a QUERY_FRAGMENT node that runs until the next line
+ * starting with a value, so {@link org.clabs.superdb.SuperJSONOperatorAnnotator} can flag it.
+ * <p>
+ * Top-level containers, and nested ones spanning at least {@link #LAZY_BLOCK_MIN_LENGTH}
+ * characters, are not parsed here: their tokens are collapsed into a lazy VALUE_BLOCK
+ * that is parsed on demand by {@link #parseBlock}.
+ */
+public class SuperJSONParser implements PsiParser, LightPsiParser {
+
+    private static final TokenSet LITERALS = TokenSet.create(
+            DOUBLE_QUOTED_STRING, SINGLE_QUOTED_STRING, BACKTICK_STRING, RAW_STRING,
+            INT_LIT, FLOAT_LIT, HEX_LIT, NAN_LIT, INF_LIT,
+            TRUE, FALSE, NULL,
+            TIMESTAMP_LIT, DURATION_LIT,
+            IP4_LIT, IP6_LIT, IP4_NET_LIT, IP6_NET_LIT
+    );
+
+    private static final TokenSet SIGNED_NUMBERS = TokenSet.create(INT_LIT, FLOAT_LIT, HEX_LIT);
+
+    private static final TokenSet FIELD_NAMES = TokenSet.create(
+            IDENTIFIER, DOUBLE_QUOTED_STRING, SINGLE_QUOTED_STRING, BACKTICK_STRING
+    );
+
+    private static final TokenSet VALUE_OPENERS = TokenSet.create(LBRACE, LBRACKET, SET_LBRACKET, MAP_LBRACE);
+
+    private static final TokenSet OPENERS = TokenSet.create(LBRACE, LBRACKET, SET_LBRACKET, MAP_LBRACE, LPAREN);
+
+    private static final TokenSet CLOSERS = TokenSet.create(RBRACE, RBRACKET, SET_RBRACKET, MAP_RBRACE, RPAREN);
+
+    private static final TokenSet SEPARATORS = TokenSet.create(COMMA, COLON);
+
+    // Tokens that can only start query text, never a value (mirrors statement_start_keyword
+    // and declaration_keyword in supersql.bnf, plus bare identifiers and pipes)
+    private static final TokenSet QUERY_START = TokenSet.create(
+            CONST, FN, LET, OP, PRAGMA, TYPE_KW,
+            SELECT, FROM, WITH, FORK, SWITCH, SEARCH, ASSERT, SORT, TOP, CUT, DROP,
+            HEAD, TAIL, PUT, RENAME, SUMMARIZE, AGGREGATE, VALUES, LOAD, OUTPUT, DEBUG,
+            WHERE, COUNT, CALL, UNIQ, FUSE, PASS, EXPLODE, MERGE, UNNEST, SKIP_KW, SHAPES,
+            DISTINCT, ORDER, LIMIT, JOIN, QUESTION,
+            IDENTIFIER, PIPE, PIPE_ARROW, SEMICOLON, BASH_INTERPOLATION
+    );
+
+    /**
+     * Nested containers at least this long become lazy blocks.
+     */
+    static final int LAZY_BLOCK_MIN_LENGTH = 1024;
+
+    private static final int ALWAYS_LAZY = 0;
+    private static final int NEVER_LAZY = -1;
+
+    @NotNull
+    @Override
+    public ASTNode parse(@NotNull IElementType root, @NotNull PsiBuilder builder) {
+        parseLight(root, builder);
+        return builder.getTreeBuilt();
+    }
+
+    @Override
+    public void parseLight(IElementType root, PsiBuilder builder) {
+        PsiBuilder.Marker file = builder.mark();
+        while (!builder.eof()) {
+            parseTopLevelItem(builder);
+        }
+        file.done(root);
+    }
+
+    /**
+     * Parses the contents of a lazy VALUE_BLOCK: exactly one container, parsed eagerly.
+     */
+    public static ASTNode parseBlock(IElementType root, PsiBuilder builder) {
+        PsiBuilder.Marker block = builder.mark();
+        if (!parsePrimary(builder, NEVER_LAZY)) {
+            builder.error("Value expected");
+        }
+        while (!builder.eof()) {
+            PsiBuilder.Marker error = builder.mark();
+            builder.advanceLexer();
+            error.error("Unexpected token");
+        }
+        block.done(root);
+        return builder.getTreeBuilt();
+    }
+
+    /**
+     * True if {@code text} is a single container whose brackets balance, closing with
+     * the counterpart of its opening bracket - i.e. it can be reparsed as a VALUE_BLOCK alone.
+     */
+    public static boolean isBalancedBlock(CharSequence text) {
+        Lexer lexer = new SuperSQLLexerAdapter();
+        lexer.start(text);
+        IElementType close = closerFor(lexer.getTokenType());
+        if (close == null) {
+            return false;
+        }
+        int depth = 0;
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (OPENERS.contains(type)) {
+                depth++;
+            } else if (CLOSERS.contains(type)) {
+                depth--;
+            }
+            lexer.advance();
+            if (depth == 0) {
+                return type == close && lexer.getTokenType() == null;
+            }
+        }
+        return false;
+    }
+
+    private static void parseTopLevelItem(PsiBuilder builder) {
+        if (parseValue(builder, ALWAYS_LAZY)) {
+            return;
+        }
+        if (QUERY_START.contains(builder.getTokenType())) {
+            parseQueryFragment(builder);
+            return;
+        }
+        PsiBuilder.Marker error = builder.mark();
+        builder.advanceLexer();
+        error.error("Value expected");
+    }
+
+    /**
+     * Consumes query text up to the next line that starts with a value.
+     */
+    private static void parseQueryFragment(PsiBuilder builder) {
+        PsiBuilder.Marker fragment = builder.mark();
+        do {
+            builder.advanceLexer();
+        } while (!builder.eof() && !(isAtLineStart(builder) && canStartValue(builder)));
+        fragment.done(QUERY_FRAGMENT);
+    }
+
+    static boolean parseValue(PsiBuilder builder) {
+        return parseValue(builder, LAZY_BLOCK_MIN_LENGTH);
+    }
+
+    private static boolean parseValue(PsiBuilder builder, int lazyMinLength) {
+        PsiBuilder.Marker value = builder.mark();
+        if (!parsePrimary(builder, lazyMinLength)) {
+            value.drop();
+            return false;
+        }
+        while (builder.getTokenType() == CAST_OP || builder.getTokenType() == TYPE_DECORATOR) {
+            builder.advanceLexer();
+            parseType(builder);
+            value.done(DECORATED_VALUE);
+            value = value.precede();
+        }
+        value.drop();
+        return true;
+    }
+
+    private static boolean parsePrimary(PsiBuilder builder, int lazyMinLength) {
+        IElementType type = builder.getTokenType();
+        if (lazyMinLength != NEVER_LAZY && VALUE_OPENERS.contains(type) && parseLazyBlock(builder, lazyMinLength)) {
+            return true;
+        }
+        if (type == LBRACE) {
+            parseRecord(builder);
+            return true;
+        }
+        if (type == LBRACKET) {
+            parseList(builder, RBRACKET, "']' expected", ARRAY);
+            return true;
+        }
+        if (type == SET_LBRACKET) {
+            parseList(builder, SET_RBRACKET, "']|' expected", SET);
+            return true;
+        }
+        if (type == MAP_LBRACE) {
+            parseMap(builder);
+            return true;
+        }
+        if (type == LT) {
+            parseTypeValue(builder);
+            return true;
+        }
+        if (type == ERROR && builder.lookAhead(1) == LPAREN) {
+            parseErrorValue(builder);
+            return true;
+        }
+        if ((type == MINUS || type == PLUS) && SIGNED_NUMBERS.contains(builder.lookAhead(1))) {
+            PsiBuilder.Marker literal = builder.mark();
+            builder.advanceLexer();
+            builder.advanceLexer();
+            literal.done(LITERAL);
+            return true;
+        }
+        if (LITERALS.contains(type)) {
+            PsiBuilder.Marker literal = builder.mark();
+            builder.advanceLexer();
+            literal.done(LITERAL);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Skips to the matching closer and collapses the container into a VALUE_BLOCK if it is
+     * at least {@code minLength} characters long. Short or unbalanced containers are rolled
+     * back so they get parsed (and their errors reported) eagerly.
+     */
+    private static boolean parseLazyBlock(PsiBuilder builder, int minLength) {
+        int start = builder.getCurrentOffset();
+        IElementType close = closerFor(builder.getTokenType());
+        PsiBuilder.Marker block = builder.mark();
+        int depth = 0;
+        IElementType type;
+        do {
+            type = builder.getTokenType();
+            if (OPENERS.contains(type)) {
+                depth++;
+            } else if (CLOSERS.contains(type)) {
+                depth--;
+            }
+            builder.advanceLexer();
+        } while (depth > 0 && !builder.eof());
+
+        if (depth == 0 && type == close && builder.getCurrentOffset() - start >= minLength) {
+            block.collapse(VALUE_BLOCK);
+            return true;
+        }
+        block.rollbackTo();
+        return false;
+    }
+
+    private static void parseRecord(PsiBuilder builder) {
+        PsiBuilder.Marker record = builder.mark();
+        builder.advanceLexer();
+        parseElements(builder, RBRACE, SuperJSONParser::parseField, "Field expected");
+        expect(builder, RBRACE, "'}' expected");
+        record.done(RECORD);
+    }
+
+    private static boolean parseField(PsiBuilder builder) {
+        IElementType type = builder.getTokenType();
+        boolean isName = FIELD_NAMES.contains(type)
+                || (builder.lookAhead(1) == COLON && !isStructural(type));
+        if (!isName) {
+            return false;
+        }
+        PsiBuilder.Marker field = builder.mark();
+        PsiBuilder.Marker name = builder.mark();
+        builder.advanceLexer();
+        name.done(FIELD_NAME);
+        if (expect(builder, COLON, "':' expected") && !parseValue(builder)) {
+            builder.error("Value expected");
+        }
+        field.done(FIELD);
+        return true;
+    }
+
+    private static void parseList(PsiBuilder builder, IElementType close, String closeMessage, IElementType listType) {
+        PsiBuilder.Marker list = builder.mark();
+        builder.advanceLexer();
+        parseElements(builder, close, SuperJSONParser::parseValue, "Value expected");
+        expect(builder, close, closeMessage);
+        list.done(listType);
+    }
+
+    private static void parseMap(PsiBuilder builder) {
+        PsiBuilder.Marker map = builder.mark();
+        builder.advanceLexer();
+        parseElements(builder, MAP_RBRACE, SuperJSONParser::parseMapEntry, "Map entry expected");
+        expect(builder, MAP_RBRACE, "'}|' expected");
+        map.done(MAP);
+    }
+
+    private static boolean parseMapEntry(PsiBuilder builder) {
+        PsiBuilder.Marker entry = builder.mark();
+        if (!parseValue(builder)) {
+            entry.drop();
+            return false;
+        }
+        if (expect(builder, COLON, "':' expected") && !parseValue(builder)) {
+            builder.error("Value expected");
+        }
+        entry.done(MAP_ENTRY);
+        return true;
+    }
+
+    private static void parseErrorValue(PsiBuilder builder) {
+        PsiBuilder.Marker error = builder.mark();
+        builder.advanceLexer();
+        builder.advanceLexer();
+        if (!parseValue(builder)) {
+            builder.error("Value expected");
+        }
+        expect(builder, RPAREN, "')' expected");
+        error.done(ERROR_VALUE);
+    }
+
+    /**
+     * Type values such as {@code <int64>} or {@code <{a:string}>}, kept opaque.
+     */
+    private static void parseTypeValue(PsiBuilder builder) {
+        PsiBuilder.Marker typeValue = builder.mark();
+        builder.advanceLexer();
+        while (!builder.eof() && builder.getTokenType() != GT) {
+            if (OPENERS.contains(builder.getTokenType())) {
+                skipGroup(builder);
+            } else {
+                builder.advanceLexer();
+            }
+        }
+        expect(builder, GT, "'>' expected");
+        typeValue.done(TYPE_VALUE);
+    }
+
+    /**
+     * Types after '::' or '::=' (e.g. uint16, port=uint16, {a:int64}, int64|string), kept opaque.
+     */
+    private static void parseType(PsiBuilder builder) {
+        PsiBuilder.Marker type = builder.mark();
+        parseTypeComponent(builder);
+        while (builder.getTokenType() == EQUALS || builder.getTokenType() == PIPE) {
+            builder.advanceLexer();
+            parseTypeComponent(builder);
+        }
+        type.done(TYPE);
+    }
+
+    private static void parseTypeComponent(PsiBuilder builder) {
+        IElementType type = builder.getTokenType();
+        if (OPENERS.contains(type)) {
+            skipGroup(builder);
+            return;
+        }
+        if (builder.eof() || isStructural(type)) {
+            builder.error("Type expected");
+            return;
+        }
+        builder.advanceLexer();
+        // error(string), enum(a,b)
+        if (builder.getTokenType() == LPAREN) {
+            skipGroup(builder);
+        }
+    }
+
+    /**
+     * Skips a balanced bracket group starting at the current opener, without building PSI.
+     */
+    private static void skipGroup(PsiBuilder builder) {
+        int depth = 0;
+        do {
+            IElementType type = builder.getTokenType();
+            if (OPENERS.contains(type)) {
+                depth++;
+            } else if (CLOSERS.contains(type)) {
+                depth--;
+            }
+            builder.advanceLexer();
+        } while (depth > 0 && !builder.eof());
+        if (depth > 0) {
+            builder.error("Unbalanced brackets");
+        }
+    }
+
+    /**
+     * Parses comma-separated elements up to (but not including) {@code close}.
+     * Recovers from bad elements by wrapping one token at a time in an error,
+     * and stops at a closer belonging to an enclosing container.
+     */
+    private static void parseElements(PsiBuilder builder, IElementType close, ElementParser parser, String expected) {
+        while (!builder.eof() && builder.getTokenType() != close) {
+            if (!parser.parse(builder)) {
+                if (CLOSERS.contains(builder.getTokenType())) {
+                    builder.error(expected);
+                    return;
+                }
+                PsiBuilder.Marker error = builder.mark();
+                builder.advanceLexer();
+                error.error(expected);
+            }
+            IElementType next = builder.getTokenType();
+            if (next == COMMA) {
+                builder.advanceLexer();
+            } else if (next == close || next == null || CLOSERS.contains(next)) {
+                return;
+            } else {
+                builder.error("',' expected");
+            }
+        }
+    }
+
+    private static boolean expect(PsiBuilder builder, IElementType type, String message) {
+        if (builder.getTokenType() == type) {
+            builder.advanceLexer();
+            return true;
+        }
+        builder.error(message);
+        return false;
+    }
+
+    private static boolean isStructural(IElementType type) {
+        return OPENERS.contains(type) || CLOSERS.contains(type) || SEPARATORS.contains(type);
+    }
+
+    private static IElementType closerFor(IElementType open) {
+        if (open == LBRACE) {
+            return RBRACE;
+        }
+        if (open == LBRACKET) {
+            return RBRACKET;
+        }
+        if (open == SET_LBRACKET) {
+            return SET_RBRACKET;
+        }
+        if (open == MAP_LBRACE) {
+            return MAP_RBRACE;
+        }
+        return null;
+    }
+
+    private static boolean canStartValue(PsiBuilder builder) {
+        IElementType type = builder.getTokenType();
+        return type == LBRACE || type == LBRACKET || type == SET_LBRACKET || type == MAP_LBRACE
+                || type == LT || type == ERROR || type == MINUS || type == PLUS
+                || LITERALS.contains(type);
+    }
+
+    /**
+     * True if the whitespace immediately before the current token contains a line break.
+     */
+    private static boolean isAtLineStart(PsiBuilder builder) {
+        if (builder.rawLookup(-1) != TokenType.WHITE_SPACE) {
+            return false;
+        }
+        CharSequence text = builder.getOriginalText();
+        int end = builder.getCurrentOffset();
+        for (int i = builder.rawTokenTypeStart(-1); i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface ElementParser {
+        boolean parse(PsiBuilder builder);
+    }
+}
@@ -0,0 +1,26 @@
+package org.clabs.superdb.psi;
+
+import com.intellij.extapi.psi.PsiFileBase;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.psi.FileViewProvider;
+import org.clabs.superdb.SuperJSONDataFileType;
+import org.clabs.superdb.SuperJSONLanguage;
+import org.jetbrains.annotations.NotNull;
+
+public class SuperJSONFile extends PsiFileBase {
+
+    public SuperJSONFile(@NotNull FileViewProvider viewProvider) {
+        super(viewProvider, SuperJSONLanguage.INSTANCE);
+    }
+
+    @NotNull
+    @Override
+    public FileType getFileType() {
+        return SuperJSONDataFileType.INSTANCE;
+    }
+
+    @Override
+    public String toString() {
+        return "SuperJSON File";
+    }
+}
@@ -0,0 +1,40 @@
+package org.clabs.superdb.psi;
+
+import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import org.clabs.superdb.SuperJSONElementType;
+import org.clabs.superdb.SuperJSONValueBlockType;
+
+/**
+ * Element types for the SuperJSON value grammar.
+ * Tokens are shared with SuperSQL (see {@link SuperSQLTypes}); only composite nodes live here.
+ */
+public interface SuperJSONTypes {
+
+    IElementType RECORD = new SuperJSONElementType("RECORD");
+    IElementType FIELD = new SuperJSONElementType("FIELD");
+    IElementType FIELD_NAME = new SuperJSONElementType("FIELD_NAME");
+    IElementType ARRAY = new SuperJSONElementType("ARRAY");
+    IElementType SET = new SuperJSONElementType("SET");
+    IElementType MAP = new SuperJSONElementType("MAP");
+    IElementType MAP_ENTRY = new SuperJSONElementType("MAP_ENTRY");
+    IElementType LITERAL = new SuperJSONElementType("LITERAL");
+    IElementType ERROR_VALUE = new SuperJSONElementType("ERROR_VALUE");
+    IElementType TYPE_VALUE = new SuperJSONElementType("TYPE_VALUE");
+    IElementType DECORATED_VALUE = new SuperJSONElementType("DECORATED_VALUE");
+    IElementType TYPE = new SuperJSONElementType("TYPE");
+
+    // Lazily parsed record/array/set/map; only gets a real subtree when first accessed
+    IElementType VALUE_BLOCK = new SuperJSONValueBlockType("VALUE_BLOCK");
+
+    // Query text (operators, declarations) found where a value was expected
+    IElementType QUERY_FRAGMENT = new SuperJSONElementType("QUERY_FRAGMENT");
+
+    class Factory {
+        public static PsiElement createElement(ASTNode node) {
+            return new ASTWrapperPsiElement(node);
+        }
+    }
+}
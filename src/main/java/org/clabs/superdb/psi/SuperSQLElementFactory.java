@@ -0,0 +1,33 @@
+package org.clabs.superdb.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.IncorrectOperationException;
+import org.clabs.superdb.SuperSQLLanguage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates SuperSQL PSI from text, for renames and other edits that replace elements.
+ */
+public final class SuperSQLElementFactory {
+
+    private SuperSQLElementFactory() {
+    }
+
+    /**
+     * Creates an IDENTIFIER leaf with the given text.
+     */
+    @NotNull
+    public static PsiElement createIdentifier(@NotNull Project project, @NotNull String name) {
+        SuperSQLFile file = (SuperSQLFile) PsiFileFactory.getInstance(project)
+                .createFileFromText("dummy.spq", SuperSQLLanguage.INSTANCE, "const " + name + " = 0");
+        SuperSQLConstDecl decl = PsiTreeUtil.findChildOfType(file, SuperSQLConstDecl.class);
+        PsiElement identifier = decl != null ? decl.getNameIdentifier() : null;
+        if (identifier == null || !name.equals(identifier.getText())) {
+            throw new IncorrectOperationException("Not a valid SuperSQL identifier: " + name);
+        }
+        return identifier;
+    }
+}
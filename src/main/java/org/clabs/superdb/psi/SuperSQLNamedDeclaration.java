@@ -0,0 +1,23 @@
+package org.clabs.superdb.psi;
+
+import com.intellij.psi.NavigatablePsiElement;
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.psi.StubBasedPsiElement;
+import org.clabs.superdb.psi.stubs.SuperSQLDeclarationStub;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A named declaration: {@code const}, {@code fn}, {@code let}, {@code op} or {@code type}.
+ * <p>
+ * Declarations are stub-based, so their names are available from the stub index without
+ * loading the file's AST.
+ */
+public interface SuperSQLNamedDeclaration extends PsiNameIdentifierOwner, NavigatablePsiElement,
+        StubBasedPsiElement<SuperSQLDeclarationStub> {
+
+    /**
+     * The declaring keyword: const, fn, let, op or type.
+     */
+    @NotNull
+    String getKeyword();
+}
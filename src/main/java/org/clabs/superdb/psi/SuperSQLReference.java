@@ -0,0 +1,71 @@
+package org.clabs.superdb.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.util.ArrayUtilRt;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reference from the IDENTIFIER of a name or call to the declaration it names.
+ * <p>
+ * Most identifiers in a query are record fields, which have no declaration, so the reference
+ * is soft and resolving to null is not an error. Results go through {@link ResolveCache}.
+ */
+public class SuperSQLReference extends PsiReferenceBase<PsiElement> {
+
+    private static final ResolveCache.AbstractResolver<SuperSQLReference, PsiElement> RESOLVER =
+            (reference, incompleteCode) -> SuperSQLSymbolTable.resolve(reference.getElement(),
+                    reference.getValue(), reference.kinds, reference.parameters);
+
+    private final TokenSet kinds;
+    private final boolean parameters;
+
+    private SuperSQLReference(@NotNull PsiElement element, @NotNull TextRange range,
+                              @NotNull TokenSet kinds, boolean parameters) {
+        super(element, range, true);
+        this.kinds = kinds;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Creates a reference on the IDENTIFIER child of {@code element}, or returns null if it has none.
+     *
+     * @param kinds      declaration element types the name may refer to
+     * @param parameters whether fn, op and lambda parameters are visible to the name
+     */
+    @Nullable
+    public static SuperSQLReference create(@NotNull PsiElement element, @NotNull TokenSet kinds, boolean parameters) {
+        ASTNode identifier = element.getNode().findChildByType(SuperSQLTypes.IDENTIFIER);
+        if (identifier == null) {
+            return null;
+        }
+        TextRange range = TextRange.from(identifier.getStartOffsetInParent(), identifier.getTextLength());
+        return new SuperSQLReference(element, range, kinds, parameters);
+    }
+
+    @Nullable
+    @Override
+    public PsiElement resolve() {
+        return ResolveCache.getInstance(myElement.getProject()).resolveWithCaching(this, RESOLVER, false, false);
+    }
+
+    @Override
+    public PsiElement handleElementRename(@NotNull String newElementName) throws IncorrectOperationException {
+        ASTNode identifier = myElement.getNode().findChildByType(SuperSQLTypes.IDENTIFIER);
+        if (identifier != null) {
+            identifier.getPsi().replace(SuperSQLElementFactory.createIdentifier(myElement.getProject(), newElementName));
+        }
+        return myElement;
+    }
+
+    @Override
+    public Object @NotNull [] getVariants() {
+        return ArrayUtilRt.EMPTY_OBJECT_ARRAY;
+    }
+}
@@ -0,0 +1,110 @@
+package org.clabs.superdb.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarations made directly in one scope: a file or a parenthesized {@code scope_expr}.
+ * <p>
+ * Tables are built on first use and cached on the scope element until the file changes, so
+ * resolving a name is a walk up the enclosing scopes with one map lookup per scope. Names are
+ * looked up from the innermost scope outwards, which lets a scope shadow an outer declaration.
+ */
+public final class SuperSQLSymbolTable {
+
+    private static final SuperSQLSymbolTable EMPTY = new SuperSQLSymbolTable(Map.of());
+
+    private final Map<String, List<SuperSQLNamedDeclaration>> declarations;
+
+    private SuperSQLSymbolTable(Map<String, List<SuperSQLNamedDeclaration>> declarations) {
+        this.declarations = declarations;
+    }
+
+    /**
+     * The table of {@code scope}, which must be a {@link SuperSQLFile} or {@link SuperSQLScopeExpr}.
+     */
+    @NotNull
+    public static SuperSQLSymbolTable of(@NotNull PsiElement scope) {
+        return CachedValuesManager.getCachedValue(scope, () ->
+                CachedValueProvider.Result.create(build(scope), scope.getContainingFile()));
+    }
+
+    /**
+     * Declarations of {@code name} in this scope, in document order.
+     */
+    @NotNull
+    public List<SuperSQLNamedDeclaration> get(@NotNull String name) {
+        return declarations.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Finds what {@code name} refers to at {@code context}: a parameter of an enclosing
+     * fn, op or lambda when {@code parameters} is set, otherwise the nearest declaration of one
+     * of the {@code kinds} in an enclosing scope.
+     *
+     * @return the declaration, the parameter's IDENTIFIER, or null if the name is not declared
+     */
+    @Nullable
+    public static PsiElement resolve(@NotNull PsiElement context, @NotNull String name,
+                                     @NotNull TokenSet kinds, boolean parameters) {
+        for (PsiElement scope = context.getParent(); scope != null; scope = scope.getParent()) {
+            if (parameters && (scope instanceof SuperSQLFuncDecl || scope instanceof SuperSQLOpDecl
+                    || scope instanceof SuperSQLLambdaExpr)) {
+                PsiElement parameter = findParameter(scope, name);
+                if (parameter != null) {
+                    return parameter;
+                }
+            } else if (scope instanceof SuperSQLScopeExpr || scope instanceof SuperSQLFile) {
+                for (SuperSQLNamedDeclaration declaration : of(scope).get(name)) {
+                    if (kinds.contains(declaration.getNode().getElementType())) {
+                        return declaration;
+                    }
+                }
+                if (scope instanceof PsiFile) {
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static PsiElement findParameter(PsiElement owner, String name) {
+        ASTNode list = owner.getNode().findChildByType(SuperSQLTypes.IDENTIFIER_LIST);
+        if (list == null) {
+            return null;
+        }
+        for (ASTNode child = list.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == SuperSQLTypes.IDENTIFIER && name.contentEquals(child.getChars())) {
+                return child.getPsi();
+            }
+        }
+        return null;
+    }
+
+    private static SuperSQLSymbolTable build(PsiElement scope) {
+        Map<String, List<SuperSQLNamedDeclaration>> declarations = new HashMap<>();
+        for (PsiElement child = scope.getFirstChild(); child != null; child = child.getNextSibling()) {
+            // Each declaration sits in the DECLARATION node of the declaration rule
+            if (child instanceof SuperSQLDeclaration
+                    && child.getFirstChild() instanceof SuperSQLNamedDeclaration declaration) {
+                String name = declaration.getName();
+                if (name != null) {
+                    declarations.computeIfAbsent(name, k -> new ArrayList<>(1)).add(declaration);
+                }
+            }
+        }
+        return declarations.isEmpty() ? EMPTY : new SuperSQLSymbolTable(declarations);
+    }
+}
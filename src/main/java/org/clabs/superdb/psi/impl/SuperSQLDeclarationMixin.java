@@ -0,0 +1,117 @@
+package org.clabs.superdb.psi.impl;
+
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
+import com.intellij.lang.ASTNode;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.IncorrectOperationException;
+import org.clabs.superdb.SuperSQLIcons;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.clabs.superdb.psi.SuperSQLElementFactory;
+import org.clabs.superdb.psi.SuperSQLTypes;
+import org.clabs.superdb.psi.stubs.SuperSQLDeclarationStub;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * Base class of the generated const/fn/let/op/type declaration PSI.
+ * The name comes from the stub while the file is not parsed.
+ */
+public abstract class SuperSQLDeclarationMixin extends StubBasedPsiElementBase<SuperSQLDeclarationStub>
+        implements SuperSQLNamedDeclaration {
+
+    public SuperSQLDeclarationMixin(@NotNull SuperSQLDeclarationStub stub, @NotNull IStubElementType<?, ?> nodeType) {
+        super(stub, nodeType);
+    }
+
+    public SuperSQLDeclarationMixin(@NotNull ASTNode node) {
+        super(node);
+    }
+
+    public SuperSQLDeclarationMixin(SuperSQLDeclarationStub stub, IElementType nodeType, ASTNode node) {
+        super(stub, nodeType, node);
+    }
+
+    @Nullable
+    @Override
+    public PsiElement getNameIdentifier() {
+        ASTNode identifier = getNode().findChildByType(SuperSQLTypes.IDENTIFIER);
+        return identifier != null ? identifier.getPsi() : null;
+    }
+
+    @Nullable
+    @Override
+    public String getName() {
+        SuperSQLDeclarationStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getName();
+        }
+        PsiElement identifier = getNameIdentifier();
+        return identifier != null ? identifier.getText() : null;
+    }
+
+    @Override
+    public PsiElement setName(@NotNull String name) throws IncorrectOperationException {
+        PsiElement identifier = getNameIdentifier();
+        if (identifier != null) {
+            identifier.replace(SuperSQLElementFactory.createIdentifier(getProject(), name));
+        }
+        return this;
+    }
+
+    @Override
+    public int getTextOffset() {
+        PsiElement identifier = getNameIdentifier();
+        return identifier != null ? identifier.getTextOffset() : super.getTextOffset();
+    }
+
+    @NotNull
+    @Override
+    public String getKeyword() {
+        IElementType type = getIElementType();
+        if (type == SuperSQLTypes.CONST_DECL) {
+            return "const";
+        }
+        if (type == SuperSQLTypes.FUNC_DECL) {
+            return "fn";
+        }
+        if (type == SuperSQLTypes.QUERY_DECL) {
+            return "let";
+        }
+        if (type == SuperSQLTypes.OP_DECL) {
+            return "op";
+        }
+        return "type";
+    }
+
+    @Override
+    public ItemPresentation getPresentation() {
+        return new ItemPresentation() {
+            @Override
+            public String getPresentableText() {
+                return getKeyword() + " " + getName();
+            }
+
+            @Override
+            public String getLocationString() {
+                PsiFile file = getContainingFile();
+                return file != null ? file.getName() : null;
+            }
+
+            @Override
+            public Icon getIcon(boolean unused) {
+                return SuperSQLIcons.FILE;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + getIElementType() + ")";
+    }
+}
@@ -1,6 +1,16 @@
 package org.clabs.superdb.psi.impl;
 
-import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.tree.TokenSet;
+import org.clabs.superdb.psi.SuperSQLCallExpr;
+import org.clabs.superdb.psi.SuperSQLCallOp;
+import org.clabs.superdb.psi.SuperSQLFuncValue;
+import org.clabs.superdb.psi.SuperSQLIdExpr;
+import org.clabs.superdb.psi.SuperSQLIdOrCall;
+import org.clabs.superdb.psi.SuperSQLReference;
+import org.clabs.superdb.psi.SuperSQLTypes;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Utility class for PSI implementation methods.
@@ -8,9 +18,45 @@ import com.intellij.psi.PsiElement;
  */
 public class SuperSQLPsiImplUtil {
 
-    // Add utility methods here as needed for PSI manipulation
-    // For example:
-    // public static String getName(SuperSQLIdentifier element) {
-    //     return element.getText();
-    // }
+    // What each kind of name may refer to
+    private static final TokenSet VALUES = TokenSet.create(SuperSQLTypes.CONST_DECL, SuperSQLTypes.QUERY_DECL);
+    private static final TokenSet FUNCTIONS = TokenSet.create(SuperSQLTypes.FUNC_DECL);
+    private static final TokenSet OPERATORS = TokenSet.create(SuperSQLTypes.OP_DECL, SuperSQLTypes.FUNC_DECL);
+    private static final TokenSet PIPE_CALLS = TokenSet.create(SuperSQLTypes.OP_DECL, SuperSQLTypes.FUNC_DECL,
+            SuperSQLTypes.QUERY_DECL);
+
+    /**
+     * {@code name} refers to a const, let query or parameter; {@code name(...)} to a fn.
+     */
+    @Nullable
+    public static PsiReference getReference(@NotNull SuperSQLIdOrCall element) {
+        boolean call = element.getNode().findChildByType(SuperSQLTypes.LPAREN) != null;
+        return SuperSQLReference.create(element, call ? FUNCTIONS : VALUES, true);
+    }
+
+    @Nullable
+    public static PsiReference getReference(@NotNull SuperSQLIdExpr element) {
+        return SuperSQLReference.create(element, VALUES, true);
+    }
+
+    /**
+     * A name used as a pipe operator refers to an op, fn or let query.
+     */
+    @Nullable
+    public static PsiReference getReference(@NotNull SuperSQLCallExpr element) {
+        return SuperSQLReference.create(element, PIPE_CALLS, true);
+    }
+
+    @Nullable
+    public static PsiReference getReference(@NotNull SuperSQLCallOp element) {
+        return SuperSQLReference.create(element, OPERATORS, false);
+    }
+
+    /**
+     * {@code &name} refers to a fn or a parameter holding one.
+     */
+    @Nullable
+    public static PsiReference getReference(@NotNull SuperSQLFuncValue element) {
+        return SuperSQLReference.create(element, FUNCTIONS, true);
+    }
 }
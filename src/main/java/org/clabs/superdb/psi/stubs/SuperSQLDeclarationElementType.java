@@ -0,0 +1,87 @@
+package org.clabs.superdb.psi.stubs;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import org.clabs.superdb.SuperSQLLanguage;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.clabs.superdb.psi.SuperSQLTypes;
+import org.clabs.superdb.psi.impl.SuperSQLConstDeclImpl;
+import org.clabs.superdb.psi.impl.SuperSQLFuncDeclImpl;
+import org.clabs.superdb.psi.impl.SuperSQLOpDeclImpl;
+import org.clabs.superdb.psi.impl.SuperSQLQueryDeclImpl;
+import org.clabs.superdb.psi.impl.SuperSQLTypeDeclImpl;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Element type shared by the const/fn/let/op/type declarations. Each stub carries the
+ * declared name, which is indexed in {@link SuperSQLDeclarationIndex}.
+ */
+public class SuperSQLDeclarationElementType extends IStubElementType<SuperSQLDeclarationStub, SuperSQLNamedDeclaration> {
+
+    public SuperSQLDeclarationElementType(@NotNull String debugName) {
+        super(debugName, SuperSQLLanguage.INSTANCE);
+    }
+
+    @Override
+    public SuperSQLNamedDeclaration createPsi(@NotNull SuperSQLDeclarationStub stub) {
+        if (this == SuperSQLTypes.CONST_DECL) {
+            return new SuperSQLConstDeclImpl(stub, this);
+        }
+        if (this == SuperSQLTypes.FUNC_DECL) {
+            return new SuperSQLFuncDeclImpl(stub, this);
+        }
+        if (this == SuperSQLTypes.QUERY_DECL) {
+            return new SuperSQLQueryDeclImpl(stub, this);
+        }
+        if (this == SuperSQLTypes.OP_DECL) {
+            return new SuperSQLOpDeclImpl(stub, this);
+        }
+        if (this == SuperSQLTypes.TYPE_DECL) {
+            return new SuperSQLTypeDeclImpl(stub, this);
+        }
+        throw new IllegalStateException("Not a declaration type: " + this);
+    }
+
+    @NotNull
+    @Override
+    public SuperSQLDeclarationStub createStub(@NotNull SuperSQLNamedDeclaration psi, StubElement<?> parentStub) {
+        return new SuperSQLDeclarationStub(parentStub, this, psi.getName());
+    }
+
+    @Override
+    public boolean shouldCreateStub(ASTNode node) {
+        // Declarations cut short by a syntax error may have no name yet
+        return node.findChildByType(SuperSQLTypes.IDENTIFIER) != null;
+    }
+
+    @NotNull
+    @Override
+    public String getExternalId() {
+        return "superdb." + this;
+    }
+
+    @Override
+    public void serialize(@NotNull SuperSQLDeclarationStub stub, @NotNull StubOutputStream dataStream) throws IOException {
+        dataStream.writeName(stub.getName());
+    }
+
+    @NotNull
+    @Override
+    public SuperSQLDeclarationStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
+        return new SuperSQLDeclarationStub(parentStub, this, dataStream.readNameString());
+    }
+
+    @Override
+    public void indexStub(@NotNull SuperSQLDeclarationStub stub, @NotNull IndexSink sink) {
+        String name = stub.getName();
+        if (name != null) {
+            sink.occurrence(SuperSQLDeclarationIndex.KEY, name);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.clabs.superdb.psi.stubs;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Declarations (const, fn, let, op, type) by declared name.
+ */
+public class SuperSQLDeclarationIndex extends StringStubIndexExtension<SuperSQLNamedDeclaration> {
+
+    public static final StubIndexKey<String, SuperSQLNamedDeclaration> KEY =
+            StubIndexKey.createIndexKey("superdb.declaration.name");
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, SuperSQLNamedDeclaration> getKey() {
+        return KEY;
+    }
+
+    @Override
+    public int getVersion() {
+        return super.getVersion() + 1;
+    }
+
+    /**
+     * Declarations named {@code name} in {@code scope}.
+     */
+    @NotNull
+    public static Collection<SuperSQLNamedDeclaration> find(@NotNull String name, @NotNull Project project,
+                                                       @NotNull GlobalSearchScope scope) {
+        return StubIndex.getElements(KEY, name, project, scope, SuperSQLNamedDeclaration.class);
+    }
+}
@@ -0,0 +1,17 @@
+package org.clabs.superdb.psi.stubs;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.NamedStubBase;
+import com.intellij.psi.stubs.StubElement;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stub of a named declaration; all it records is the declared name.
+ */
+public class SuperSQLDeclarationStub extends NamedStubBase<SuperSQLNamedDeclaration> {
+
+    public SuperSQLDeclarationStub(StubElement<?> parent, IStubElementType<?, ?> elementType, @Nullable String name) {
+        super(parent, elementType, name);
+    }
+}
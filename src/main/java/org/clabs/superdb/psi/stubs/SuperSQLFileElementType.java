@@ -0,0 +1,31 @@
+package org.clabs.superdb.psi.stubs;
+
+import com.intellij.psi.stubs.PsiFileStub;
+import com.intellij.psi.tree.IStubFileElementType;
+import org.clabs.superdb.SuperSQLLanguage;
+import org.clabs.superdb.psi.SuperSQLFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * File element type of .spq files. Bump {@link #STUB_VERSION} whenever the stub tree or the
+ * grammar rules that produce stubs change, so existing indexes are rebuilt.
+ */
+public class SuperSQLFileElementType extends IStubFileElementType<PsiFileStub<SuperSQLFile>> {
+
+    private static final int STUB_VERSION = 1;
+
+    public SuperSQLFileElementType() {
+        super("SUPERSQL_FILE", SuperSQLLanguage.INSTANCE);
+    }
+
+    @Override
+    public int getStubVersion() {
+        return STUB_VERSION;
+    }
+
+    @NotNull
+    @Override
+    public String getExternalId() {
+        return "superdb.FILE";
+    }
+}
@@ -0,0 +1,21 @@
+package org.clabs.superdb.psi.stubs;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stub element types. {@link #declaration} is the elementTypeFactory supersql.bnf names for
+ * the declaration rules, so SuperSQLTypes holds stub types for them.
+ */
+public final class SuperSQLStubElementTypes {
+
+    public static final SuperSQLFileElementType FILE = new SuperSQLFileElementType();
+
+    private SuperSQLStubElementTypes() {
+    }
+
+    @NotNull
+    public static IElementType declaration(@NotNull String debugName) {
+        return new SuperSQLDeclarationElementType(debugName);
+    }
+}
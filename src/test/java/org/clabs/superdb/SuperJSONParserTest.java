@@ -0,0 +1,157 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiErrorElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.ParsingTestCase;
+import org.clabs.superdb.parser.SuperJSONParser;
+import org.clabs.superdb.psi.SuperJSONTypes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Parser tests for SuperJSON (.sup) data files.
+ */
+public class SuperJSONParserTest extends ParsingTestCase {
+
+    public SuperJSONParserTest() {
+        super("", "sup", new SuperJSONParserDefinition());
+    }
+
+    @Override
+    protected String getTestDataPath() {
+        return "examples";
+    }
+
+    public void testExampleDataFileParses() throws IOException {
+        String content = Files.readString(Paths.get("examples", "data.sup"));
+        PsiFile file = createPsiFile("data.sup", content);
+
+        assertNoErrors(file);
+        assertEmpty(collect(file, SuperJSONTypes.QUERY_FRAGMENT));
+    }
+
+    public void testTopLevelValues() {
+        PsiFile file = createPsiFile("values.sup", "{x: 1}\n[1,2]\n|[1,2]|\n|{\"k\":1}|\n-17\n\"s\"\n");
+
+        assertNoErrors(file);
+        assertEquals(1, collect(file, SuperJSONTypes.RECORD).size());
+        assertEquals(1, collect(file, SuperJSONTypes.ARRAY).size());
+        assertEquals(1, collect(file, SuperJSONTypes.SET).size());
+        assertEquals(1, collect(file, SuperJSONTypes.MAP).size());
+    }
+
+    public void testKeywordFieldNames() {
+        PsiFile file = createPsiFile("fields.sup", "{type:\"a\",from:1,select:true,value:null}");
+
+        assertNoErrors(file);
+        assertEquals(4, collect(file, SuperJSONTypes.FIELD_NAME).size());
+    }
+
+    public void testCastsAndDecorators() {
+        PsiFile file = createPsiFile("casts.sup", "42::uint8\n{x: 1}::=my_type\n<int64>\nerror(\"boom\")\n");
+
+        assertNoErrors(file);
+        assertEquals(2, collect(file, SuperJSONTypes.DECORATED_VALUE).size());
+        assertEquals(1, collect(file, SuperJSONTypes.TYPE_VALUE).size());
+        assertEquals(1, collect(file, SuperJSONTypes.ERROR_VALUE).size());
+    }
+
+    public void testQueryTextIsWrappedInFragment() {
+        PsiFile file = createPsiFile("query.sup", "{x: 1}\nfrom input.sup | sort x\n{x: 2}\nconst x = 1\n");
+
+        assertEquals(2, collect(file, SuperJSONTypes.QUERY_FRAGMENT).size());
+        assertEquals(2, collect(file, SuperJSONTypes.RECORD).size());
+    }
+
+    public void testStructureValidatorReportsQueryFragments() {
+        PsiFile file = createPsiFile("query.sup", "{x: 1}\nfrom input.sup | sort x\n{x: 2}\nconst x = 1\n");
+
+        List<PsiElement> violations = SuperJSONStructureValidator.collectViolations(file);
+        assertEquals(2, violations.size());
+        assertTrue(violations.get(0).getText().startsWith("from input.sup"));
+        assertTrue(violations.get(1).getText().startsWith("const x"));
+    }
+
+    public void testStructureValidatorAcceptsData() throws IOException {
+        String content = Files.readString(Paths.get("examples", "data.sup"));
+
+        assertEmpty(SuperJSONStructureValidator.collectViolations(createPsiFile("data.sup", content)));
+    }
+
+    public void testUnclosedRecordReportsError() {
+        PsiFile file = createPsiFile("broken.sup", "{x: 1, y: 2");
+
+        assertFalse(PsiTreeUtil.collectElementsOfType(file, PsiErrorElement.class).isEmpty());
+    }
+
+    public void testTopLevelContainersAreLazy() {
+        PsiFile file = createPsiFile("lazy.sup", "{x: 1}\n[1, 2]\n42\n");
+
+        ASTNode first = file.getNode().getFirstChildNode();
+        assertEquals(SuperJSONTypes.VALUE_BLOCK, first.getElementType());
+        assertFalse(((LazyParseableElement) first).isParsed());
+
+        assertEquals(SuperJSONTypes.RECORD, first.getFirstChildNode().getElementType());
+        assertTrue(((LazyParseableElement) first).isParsed());
+    }
+
+    public void testLargeNestedContainersAreLazy() {
+        StringBuilder sb = new StringBuilder("{small: [1, 2], big: [");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i).append(", ");
+        }
+        sb.append("0]}");
+        PsiFile file = createPsiFile("nested.sup", sb.toString());
+
+        assertNoErrors(file);
+        // the top-level record plus the big array; the small array is parsed eagerly
+        assertEquals(2, collect(file, SuperJSONTypes.VALUE_BLOCK).size());
+        assertEquals(2, collect(file, SuperJSONTypes.ARRAY).size());
+    }
+
+    public void testBalancedBlock() {
+        assertTrue(SuperJSONParser.isBalancedBlock("{x: [1, 2], y: {z: 3}}"));
+        assertTrue(SuperJSONParser.isBalancedBlock("|[1, 2]|"));
+        assertFalse(SuperJSONParser.isBalancedBlock("{x: [1, 2}"));
+        assertFalse(SuperJSONParser.isBalancedBlock("{x: 1}}"));
+        assertFalse(SuperJSONParser.isBalancedBlock("{x: 1}|"));
+        assertFalse(SuperJSONParser.isBalancedBlock(" {x: 1}"));
+    }
+
+    private static void assertNoErrors(PsiFile file) {
+        Collection<PsiErrorElement> errors = PsiTreeUtil.collectElementsOfType(file, PsiErrorElement.class);
+        if (!errors.isEmpty()) {
+            StringBuilder sb = new StringBuilder("Unexpected parse errors:");
+            for (PsiErrorElement error : errors) {
+                sb.append("\n  - offset ").append(error.getTextOffset())
+                  .append(": ").append(error.getErrorDescription());
+            }
+            fail(sb.toString());
+        }
+    }
+
+    private static List<ASTNode> collect(PsiFile file, IElementType type) {
+        List<ASTNode> result = new ArrayList<>();
+        collect(file.getNode(), type, result);
+        return result;
+    }
+
+    private static void collect(ASTNode node, IElementType type, List<ASTNode> result) {
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == type) {
+                result.add(child);
+            }
+            collect(child, type, result);
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package org.clabs.superdb;
 
 import com.intellij.codeInsight.generation.actions.CommentByLineCommentAction;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.lang.folding.FoldingDescriptor;
 import com.intellij.openapi.actionSystem.IdeActions;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiErrorElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SyntaxTraverser;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Integration tests for SuperSQL code insight features.
  * Tests brace matching, commenting, and other editor features.
@@ -100,4 +111,89 @@ public class SuperSQLCodeInsightTest extends BasePlatformTestCase {
         // If quote handler is not properly registered, this would fail
         assertNotNull(myFixture.getFile());
     }
+
+    // === Folding ===
+
+    public void testFoldRegions() {
+        myFixture.configureByText("test.spq", """
+                /* block
+                   comment */
+                fn scale(x): x * 2 + 100
+                from data
+                | put r := {a: 1, b: [1, 2, 3]}, lvl := CASE WHEN x > 1 THEN "hi" ELSE "lo" END
+                """);
+        SuperSQLFoldingBuilder builder = new SuperSQLFoldingBuilder();
+        Document document = myFixture.getEditor().getDocument();
+
+        assertOrderedEquals(placeholders(builder, builder.buildFoldRegions(myFixture.getFile(), document, false)),
+                "/* ... */", "fn ...", "{...}", "[...]", "CASE...END");
+        assertOrderedEquals(placeholders(builder, builder.buildFoldRegions(myFixture.getFile(), document, true)),
+                "/* ... */", "fn ...");
+    }
+
+    public void testFoldRegionsAreCapped() {
+        StringBuilder text = new StringBuilder("values ");
+        for (int i = 0; i <= SuperSQLFoldingBuilder.MAX_REGIONS; i++) {
+            text.append(i == 0 ? "" : ", ").append("{id: ").append(i).append('}');
+        }
+        myFixture.configureByText("test.spq", text.toString());
+        FoldingDescriptor[] regions = new SuperSQLFoldingBuilder()
+                .buildFoldRegions(myFixture.getFile(), myFixture.getEditor().getDocument(), false);
+        assertEquals(SuperSQLFoldingBuilder.MAX_REGIONS, regions.length);
+    }
+
+    // === Syntax Inspection ===
+
+    public void testSyntaxInspectionReportsEachErrorElement() {
+        myFixture.configureByText("test.spq", "from data | where (x > 1");
+        PsiFile file = myFixture.getFile();
+        ProblemsHolder holder = new ProblemsHolder(InspectionManager.getInstance(getProject()), file, false);
+        PsiElementVisitor visitor = new SuperSQLSyntaxInspection().buildVisitor(holder, false);
+        SyntaxTraverser.psiTraverser(file).forEach(element -> element.accept(visitor));
+        assertEquals(SyntaxTraverser.psiTraverser(file).filter(PsiErrorElement.class).size(), holder.getResultCount());
+        assertTrue(holder.hasResults());
+    }
+
+    // === Completion ===
+
+    public void testPrefixTrieIgnoresCase() {
+        PrefixTrie trie = new PrefixTrie(List.of("count", "coalesce", "Count2", "from", "fork", "fork"));
+        assertEquals(5, trie.size());
+        assertEquals(List.of("coalesce", "count", "Count2"), trie.withPrefix("co"));
+        assertEquals(List.of("count", "Count2"), trie.withPrefix("COUNT"));
+        assertEquals(List.of("fork"), trie.withPrefix("fork"));
+        assertEquals(5, trie.withPrefix("").size());
+        assertEmpty(trie.withPrefix("x"));
+        assertEmpty(trie.withPrefix("forks"));
+    }
+
+    public void testCompletionOffersDeclarationsFunctionsAndKeywords() {
+        myFixture.configureByText("test.spq", "const colour = 1\nvalues co<caret>");
+        myFixture.completeBasic();
+        List<String> items = myFixture.getLookupElementStrings();
+        assertNotNull(items);
+        assertContainsElements(items, "colour", "coalesce", "count");
+        assertEquals(1, items.stream().filter("count"::equals).count());
+    }
+
+    public void testFunctionCompletionAddsParentheses() {
+        myFixture.configureByText("test.spq", "values coales<caret>");
+        myFixture.completeBasic();
+        myFixture.checkResult("values coalesce(<caret>)");
+    }
+
+    public void testNoCompletionInComments() {
+        myFixture.configureByText("test.spq", "-- coal<caret>\nvalues 1");
+        myFixture.completeBasic();
+        List<String> items = myFixture.getLookupElementStrings();
+        assertTrue(items == null || !items.contains("coalesce"));
+    }
+
+    private static List<String> placeholders(SuperSQLFoldingBuilder builder, FoldingDescriptor[] descriptors) {
+        List<String> result = new ArrayList<>();
+        for (FoldingDescriptor descriptor : descriptors) {
+            result.add(builder.getPlaceholderText(descriptor.getElement()));
+        }
+        return result;
+    }
 }
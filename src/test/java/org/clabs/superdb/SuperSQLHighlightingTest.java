@@ -1,6 +1,15 @@
 package org.clabs.superdb;
 
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.editor.colors.TextAttributesKey;
+import com.intellij.psi.SyntaxTraverser;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.clabs.superdb.psi.SuperSQLTypes;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Integration tests for SuperSQL syntax highlighting.
@@ -103,4 +112,55 @@ public class SuperSQLHighlightingTest extends BasePlatformTestCase {
         myFixture.configureByText("query.spq", "SELECT 1");
         assertEquals(SuperSQLLanguage.INSTANCE, myFixture.getFile().getLanguage());
     }
+
+    /**
+     * Tests the token type to color mapping used by the editor highlighter.
+     */
+    public void testTokenHighlights() {
+        SuperSQLSyntaxHighlighter highlighter = new SuperSQLSyntaxHighlighter();
+        assertKeys(highlighter, SuperSQLTypes.SELECT, SuperSQLSyntaxHighlighter.KEYWORD);
+        assertKeys(highlighter, SuperSQLTypes.CONST, SuperSQLSyntaxHighlighter.KEYWORD);
+        assertKeys(highlighter, SuperSQLTypes.FORK, SuperSQLSyntaxHighlighter.OPERATOR_KEYWORD);
+        assertKeys(highlighter, SuperSQLTypes.INT64, SuperSQLSyntaxHighlighter.TYPE_KEYWORD);
+        assertKeys(highlighter, SuperSQLTypes.NAN_LIT, SuperSQLSyntaxHighlighter.CONSTANT);
+        assertKeys(highlighter, SuperSQLTypes.FSTRING, SuperSQLSyntaxHighlighter.STRING);
+        assertKeys(highlighter, SuperSQLTypes.IP6_NET_LIT, SuperSQLSyntaxHighlighter.NUMBER);
+        assertKeys(highlighter, SuperSQLTypes.BLOCK_COMMENT, SuperSQLSyntaxHighlighter.BLOCK_COMMENT);
+        assertKeys(highlighter, SuperSQLTypes.PIPE_ARROW, SuperSQLSyntaxHighlighter.OPERATION_SIGN);
+        assertKeys(highlighter, SuperSQLTypes.MAP_RBRACE, SuperSQLSyntaxHighlighter.BRACES);
+        assertKeys(highlighter, SuperSQLTypes.SET_LBRACKET, SuperSQLSyntaxHighlighter.BRACKETS);
+        assertKeys(highlighter, TokenType.BAD_CHARACTER, SuperSQLSyntaxHighlighter.BAD_CHARACTER);
+
+        assertEmpty(highlighter.getTokenHighlights(TokenType.WHITE_SPACE));
+        assertEmpty(highlighter.getTokenHighlights(SuperSQLTypes.BASH_INTERPOLATION));
+    }
+
+    /**
+     * Tests which call sites the annotator marks as built-in function calls.
+     */
+    public void testBuiltinFunctionCalls() {
+        myFixture.configureByText("test.spq", """
+                fn len(x): x
+                from data
+                | put a := UPPER(name), b := trim /* padded */ (s), c := my_func(x), d := lower
+                | summarize total := sum(amount) by region
+                """);
+        List<String> names = new ArrayList<>();
+        SyntaxTraverser.astTraverser(myFixture.getFile().getNode()).forEach(node -> {
+            ASTNode name = SuperSQLAnnotator.findBuiltinFunctionName(node);
+            if (name != null) {
+                names.add(name.getText());
+            }
+        });
+        assertOrderedEquals(names, "UPPER", "trim", "sum");
+
+        assertTrue(SuperSQLAnnotator.isBuiltinFunction("Regexp_Replace"));
+        assertTrue(SuperSQLAnnotator.isBuiltinFunction("collect_map"));
+        assertFalse(SuperSQLAnnotator.isBuiltinFunction("lowercase"));
+        assertFalse(SuperSQLAnnotator.isBuiltinFunction(""));
+    }
+
+    private static void assertKeys(SuperSQLSyntaxHighlighter highlighter, IElementType type, TextAttributesKey expected) {
+        assertOrderedEquals(highlighter.getTokenHighlights(type), expected);
+    }
 }
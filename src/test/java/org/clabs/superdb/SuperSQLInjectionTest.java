@@ -4,6 +4,8 @@ import com.intellij.psi.PsiErrorElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.intellij.testFramework.ParsingTestCase;
+import org.clabs.superdb.injection.ShellInjectionSites;
+import org.clabs.superdb.injection.SuperCommandScanner;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -76,6 +78,60 @@ public class SuperSQLInjectionTest extends ParsingTestCase {
         testShellFile("complex_patterns.sh");
     }
 
+    /**
+     * Tests the text scan that decides whether a shell string or heredoc gets SuperSQL injected.
+     */
+    public void testCommandScanner() throws IOException {
+        String content = Files.readString(Path.of(getTestDataPath(), "injection", "basic_super_commands.sh"));
+        Matcher matcher = SUPER_COMMAND_EXTRACT.matcher(content);
+        while (matcher.find()) {
+            int quote = matcher.start(1) - 1;
+            assertTrue("Not detected at " + quote, SuperCommandScanner.isQueryAt(content, quote));
+        }
+
+        assertQuery(true, "super -c |\"x\"");
+        assertQuery(true, "super -s -f line --command  |'x'");
+        assertQuery(true, "super -c <<'EOF'\n|from x");
+        assertQuery(true, "super -j --command <<EOF\n|from x");
+        assertQuery(true, "cat <<\"SuperSQL\"\n|from x");
+        assertQuery(true, "cat <<spq\n|from x");
+        assertQuery(true, "super\n  -c |\"x\"");
+        assertQuery(true, "super -c <<-EOF\n|\tfrom x");
+
+        assertQuery(false, "echo -c |\"x\"");
+        assertQuery(false, "superb -c |\"x\"");
+        assertQuery(false, "super -c \"a\" |\"b\"");
+        assertQuery(false, "super -s\necho -c |\"x\"");
+        assertQuery(false, "cat <<EOF\n|from x");
+        assertQuery(false, "cat <<SUPERSQLX\n|from x");
+        assertQuery(false, "super -c x <<EOF\n|from x");
+        assertQuery(false, "|super -c \"x\"");
+        assertQuery(false, "super -c" + " ".repeat(200) + "|\"x\"");
+    }
+
+    /**
+     * Tests that the one-pass site scan agrees with the per-host scanner at every offset.
+     */
+    public void testInjectionSites() throws IOException {
+        for (String name : List.of("basic_super_commands.sh", "bash_interpolation.sh", "complex_patterns.sh")) {
+            String content = Files.readString(Path.of(getTestDataPath(), "injection", name));
+            ShellInjectionSites sites = ShellInjectionSites.scan(content);
+            for (int offset = 0; offset <= content.length(); offset++) {
+                assertEquals(name + " at " + offset,
+                        SuperCommandScanner.isQueryAt(content, offset), sites.isQueryAt(offset));
+            }
+        }
+    }
+
+    /**
+     * {@code text} marks the host start with '|'.
+     */
+    private static void assertQuery(boolean expected, String text) {
+        int offset = text.indexOf('|');
+        String script = text.substring(0, offset) + text.substring(offset + 1);
+        assertEquals(text, expected, SuperCommandScanner.isQueryAt(script, offset));
+    }
+
     /**
      * Extracts SuperSQL content from a shell file and verifies each snippet parses correctly.
      */
@@ -250,6 +250,31 @@ public class SuperSQLLexerTest {
         assertTokenTypes("net", SuperSQLTypes.NET_TYPE);
     }
 
+    @Test
+    public void testKeywordsAreCaseInsensitive() {
+        assertTokenTypes("select", SuperSQLTypes.SELECT);
+        assertTokenTypes("SeLeCt", SuperSQLTypes.SELECT);
+        assertTokenTypes("SUMMARIZE", SuperSQLTypes.SUMMARIZE);
+        assertTokenTypes("Int", SuperSQLTypes.INT);
+        assertTokenTypes("VarChar", SuperSQLTypes.VARCHAR);
+    }
+
+    @Test
+    public void testPrimitiveTypesAreCaseSensitive() {
+        assertTokenTypes("STRING", SuperSQLTypes.IDENTIFIER);
+        assertTokenTypes("Int64", SuperSQLTypes.IDENTIFIER);
+        assertTokenTypes("Time", SuperSQLTypes.IDENTIFIER);
+    }
+
+    @Test
+    public void testKeywordPrefixesAreIdentifiers() {
+        assertTokenTypes("selection", SuperSQLTypes.IDENTIFIER);
+        assertTokenTypes("from_ts", SuperSQLTypes.IDENTIFIER);
+        assertTokenTypes("int64x", SuperSQLTypes.IDENTIFIER);
+        assertTokenTypes("$where", SuperSQLTypes.IDENTIFIER);
+        assertTokenTypes("NaN", SuperSQLTypes.NAN_LIT);
+    }
+
     // === Identifier Tests ===
 
     @Test
@@ -285,6 +310,47 @@ public class SuperSQLLexerTest {
         Assert.assertTrue(tokens.stream().anyMatch(t -> t.type == SuperSQLTypes.COLON));
     }
 
+    // === Restartability Tests ===
+
+    @Test
+    public void testUnterminatedBashInterpolationKeepsText() {
+        String text = "from x | where y == ${VALUE:-{a: 1}";
+        List<TokenInfo> tokens = tokenize(text);
+        TokenInfo last = tokens.get(tokens.size() - 1);
+        Assert.assertEquals(SuperSQLTypes.BASH_INTERPOLATION, last.type);
+        Assert.assertEquals("${VALUE:-{a: 1}", last.text);
+        Assert.assertEquals(text, String.join("", tokens.stream().map(TokenInfo::text).toList()));
+    }
+
+    @Test
+    public void testRestartFromAnyTokenGivesSameTokens() {
+        String text = "const x = ${NAME:-{a: {b: 1}}}\n"
+                + "from data | where s == \"${VAR}\" | put y := {z: [1, 2]}\n"
+                + "| values ${UNCLOSED";
+        Lexer lexer = createLexer();
+        lexer.start(text);
+        List<int[]> starts = new ArrayList<>();
+        List<IElementType> types = new ArrayList<>();
+        while (lexer.getTokenType() != null) {
+            starts.add(new int[]{lexer.getTokenStart(), lexer.getState()});
+            types.add(lexer.getTokenType());
+            lexer.advance();
+        }
+
+        for (int i = 0; i < starts.size(); i++) {
+            Lexer restarted = createLexer();
+            restarted.start(text, starts.get(i)[0], text.length(), starts.get(i)[1]);
+            for (int j = i; j < starts.size(); j++) {
+                Assert.assertEquals("Token start after restart at token " + i,
+                        starts.get(j)[0], restarted.getTokenStart());
+                Assert.assertEquals("Token type after restart at token " + i,
+                        types.get(j), restarted.getTokenType());
+                restarted.advance();
+            }
+            Assert.assertNull(restarted.getTokenType());
+        }
+    }
+
     // === Helper Class ===
 
     private record TokenInfo(IElementType type, String text) {
@@ -0,0 +1,183 @@
+package org.clabs.superdb;
+
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.usageView.UsageInfo;
+import org.clabs.superdb.psi.SuperSQLFuncDecl;
+import org.clabs.superdb.psi.SuperSQLNamedDeclaration;
+import org.clabs.superdb.psi.SuperSQLSymbolTable;
+import org.clabs.superdb.psi.stubs.SuperSQLDeclarationIndex;
+import org.clabs.superdb.psi.stubs.SuperSQLDeclarationStub;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tests for declaration stubs, the declaration index and navigation.
+ */
+public class SuperSQLNavigationTest extends BasePlatformTestCase {
+
+    private static final String DECLARATIONS = """
+            const max_rows = 10
+            fn scale(x): x * max_rows
+            let recent = (from events | head max_rows)
+            op tail_n n: ( tail n )
+            type Event = {id: int64}
+            pragma index = 1
+            """;
+
+    public void testStubTreeHoldsDeclarationNames() {
+        PsiFile file = myFixture.addFileToProject("decls.spq", DECLARATIONS);
+        StubElement<?> root = ((PsiFileImpl) file).calcStubTree().getRoot();
+        List<String> names = new ArrayList<>();
+        for (StubElement<?> child : root.getChildrenStubs()) {
+            if (child instanceof SuperSQLDeclarationStub stub) {
+                names.add(stub.getName());
+            }
+        }
+        assertOrderedEquals(names, "max_rows", "scale", "recent", "tail_n", "Event");
+    }
+
+    public void testIndexFindsDeclarationsWithoutParsing() {
+        myFixture.addFileToProject("decls.spq", DECLARATIONS);
+        myFixture.addFileToProject("other.spq", "fn scale(y): y + 1");
+
+        Collection<SuperSQLNamedDeclaration> found = SuperSQLDeclarationIndex.find("scale", getProject(),
+                GlobalSearchScope.allScope(getProject()));
+        assertEquals(2, found.size());
+        for (SuperSQLNamedDeclaration declaration : found) {
+            assertEquals("fn", declaration.getKeyword());
+            assertEquals("scale", declaration.getName());
+        }
+        assertEmpty(SuperSQLDeclarationIndex.find("index", getProject(), GlobalSearchScope.allScope(getProject())));
+    }
+
+    public void testGotoSymbol() {
+        myFixture.addFileToProject("decls.spq", DECLARATIONS);
+        List<String> names = new ArrayList<>();
+        new SuperSQLGotoSymbolContributor().processNames(names::add, GlobalSearchScope.allScope(getProject()), null);
+        assertContainsElements(names, "max_rows", "scale", "recent", "tail_n", "Event");
+    }
+
+    public void testNameResolvesToConstInFile() {
+        PsiElement target = resolveAtCaret("""
+                const max_rows = 10
+                fn scale(x): x * max_<caret>rows
+                """);
+        assertDeclaration(target, "const", "max_rows");
+    }
+
+    public void testParameterShadowsFileDeclaration() {
+        PsiElement target = resolveAtCaret("""
+                const x = 10
+                fn scale(x): <caret>x * 2
+                """);
+        assertFalse(target instanceof SuperSQLNamedDeclaration);
+        assertEquals("x", target.getText());
+        assertInstanceOf(target.getParent().getParent(), SuperSQLFuncDecl.class);
+    }
+
+    public void testScopeShadowsFileDeclaration() {
+        PsiElement target = resolveAtCaret("""
+                const n = 1
+                (
+                  const n = 2
+                  values <caret>n
+                )
+                """);
+        assertDeclaration(target, "const", "n");
+        assertTrue(target.getText().endsWith("2"));
+    }
+
+    public void testCallResolvesToFunction() {
+        assertDeclaration(resolveAtCaret("""
+                fn scale(x): x * 2
+                values sca<caret>le(1)
+                """), "fn", "scale");
+        assertDeclaration(resolveAtCaret("""
+                fn scale(x): x * 2
+                values apply(&sca<caret>le)
+                """), "fn", "scale");
+    }
+
+    public void testFieldNamesDoNotResolve() {
+        assertNull(resolveAtCaret("""
+                fn scale(x): x * 2
+                values sca<caret>le
+                """));
+        assertNull(resolveAtCaret("values fie<caret>ld + 1"));
+    }
+
+    public void testRenameThroughReference() {
+        myFixture.configureByText("refs.spq", """
+                const max_rows = 10
+                values max_<caret>rows
+                """);
+        PsiReference reference = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset());
+        assertNotNull(reference);
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            reference.handleElementRename("CAP");
+        });
+        assertTrue(myFixture.getFile().getText().contains("values CAP"));
+    }
+
+    public void testSymbolTableIsCachedUntilFileChanges() {
+        PsiFile file = myFixture.configureByText("refs.spq", DECLARATIONS);
+        SuperSQLSymbolTable table = SuperSQLSymbolTable.of(file);
+        assertSame(table, SuperSQLSymbolTable.of(file));
+        assertEquals(1, table.get("scale").size());
+        assertEmpty(table.get("index"));
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () ->
+                myFixture.getEditor().getDocument().insertString(0, "const other = 1\n"));
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+        assertNotSame(table, SuperSQLSymbolTable.of(file));
+        assertEquals(1, SuperSQLSymbolTable.of(file).get("other").size());
+    }
+
+    public void testWordsScannerSeparatesCodeFromCommentsAndStrings() {
+        List<String> words = new ArrayList<>();
+        new SuperSQLFindUsagesProvider().getWordsScanner().processWords("values scale(x) -- scale it\n| \"scale\"",
+                occurrence -> {
+                    words.add(occurrence.getKind() + ":" + occurrence.getBaseText().subSequence(
+                            occurrence.getStart(), occurrence.getEnd()));
+                    return true;
+                });
+        assertContainsElements(words, WordOccurrence.Kind.CODE + ":scale", WordOccurrence.Kind.CODE + ":x",
+                WordOccurrence.Kind.COMMENTS + ":scale", WordOccurrence.Kind.LITERALS + ":scale");
+    }
+
+    public void testFindUsagesOfFunction() {
+        myFixture.configureByText("refs.spq", """
+                fn sc<caret>ale(x): x * 2
+                -- scale is not a usage here
+                values scale(1), scale(2), apply(&scale)
+                """);
+        PsiElement declaration = myFixture.getElementAtCaret();
+        assertInstanceOf(declaration, SuperSQLNamedDeclaration.class);
+        Collection<UsageInfo> usages = myFixture.findUsages(declaration);
+        assertEquals(3, usages.size());
+    }
+
+    private PsiElement resolveAtCaret(String text) {
+        myFixture.configureByText("refs.spq", text);
+        PsiReference reference = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset());
+        assertNotNull("no reference at caret", reference);
+        return reference.resolve();
+    }
+
+    private static void assertDeclaration(PsiElement target, String keyword, String name) {
+        assertInstanceOf(target, SuperSQLNamedDeclaration.class);
+        assertEquals(keyword, ((SuperSQLNamedDeclaration) target).getKeyword());
+        assertEquals(name, ((SuperSQLNamedDeclaration) target).getName());
+    }
+}
@@ -0,0 +1,108 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link StandInLanguageServer} as a real process under {@link LspSupervisor}.
+ */
+public class LspSupervisorTest extends BasePlatformTestCase {
+
+    private static final int LEAK_KB = 16 * 1024;
+
+    private int maxMemoryMb;
+    private int maxCpuPercent;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        maxMemoryMb = SuperSQLLspSettings.getInstance().getMaxMemoryMb();
+        maxCpuPercent = SuperSQLLspSettings.getInstance().getMaxCpuPercent();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            SuperSQLLspSettings.getInstance().setMaxMemoryMb(maxMemoryMb);
+            SuperSQLLspSettings.getInstance().setMaxCpuPercent(maxCpuPercent);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testLeakingServerIsRestartedPastTheMemoryLimit() throws Exception {
+        if (!ProcessStats.RSS_READABLE) {
+            // The memory limit is Linux-only
+            return;
+        }
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx1g", "-cp", System.getProperty("java.class.path"),
+                StandInLanguageServer.class.getName(), "leak.kb=" + LEAK_KB)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        CountDownLatch restarted = new CountDownLatch(1);
+        LspSupervisor supervisor = new LspSupervisor(getProject(), restarted::countDown);
+        try {
+            // Measure from a server that is up, not from a JVM still starting
+            OutputStream toServer = process.getOutputStream();
+            toServer.write(LspFrames.encode(message("{'id':1,'method':'initialize','params':{}}")));
+            toServer.flush();
+            awaitResponse(process.getInputStream());
+            long baseline = ProcessStats.of(process.toHandle()).rssBytes();
+            SuperSQLLspSettings settings = SuperSQLLspSettings.getInstance();
+            settings.setMaxMemoryMb((int) (baseline / (1024 * 1024)) + 64);
+            settings.setMaxCpuPercent(0);
+            supervisor.attach(process.toHandle());
+
+            // Each change keeps another LEAK_KB for good: 128 MB past the baseline after eight
+            toServer.write(LspFrames.encode(message("{'method':'textDocument/didOpen','params':{'textDocument':"
+                    + "{'uri':'file:///q.spq','languageId':'supersql','version':0,'text':''}}}")));
+            for (int version = 1; version < 8; version++) {
+                toServer.write(LspFrames.encode(message("{'method':'textDocument/didChange','params':{"
+                        + "'textDocument':{'uri':'file:///q.spq','version':" + version + "},"
+                        + "'contentChanges':[{'text':'values " + version + "'}]}}")));
+            }
+            toServer.flush();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!restarted.await(200, TimeUnit.MILLISECONDS) && System.nanoTime() < deadline) {
+                supervisor.check();
+            }
+            assertEquals("server past " + settings.getMaxMemoryMb() + " MB was not restarted",
+                    0, restarted.getCount());
+            assertTrue(process.isAlive());
+        } finally {
+            supervisor.dispose();
+            process.destroyForcibly();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitResponse(InputStream fromServer) throws IOException {
+        LspFrames.Decoder decoder = new LspFrames.Decoder();
+        List<JsonObject> messages = new ArrayList<>();
+        byte[] buffer = new byte[8192];
+        int n;
+        while (messages.isEmpty() && (n = fromServer.read(buffer)) >= 0) {
+            decoder.feed(buffer, 0, n, messages::add);
+        }
+        assertFalse("server exited before answering", messages.isEmpty());
+    }
+
+    private static JsonObject message(String json) {
+        JsonObject message = JsonParser.parseString(json).getAsJsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        return message;
+    }
+}
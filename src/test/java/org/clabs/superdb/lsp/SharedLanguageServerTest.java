@@ -0,0 +1,105 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link StandInLanguageServer} as a real process shared by two clients.
+ */
+public class SharedLanguageServerTest extends BasePlatformTestCase {
+
+    private static final String URI = "file:///q.spq";
+
+    public void testSharedDocumentChangesReachTheServerOnce() throws Exception {
+        SharedLanguageServer server = new SharedLanguageServer(() -> new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                StandInLanguageServer.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start());
+        try {
+            SharedLanguageServer.Client first = server.attach("first", null);
+            SharedLanguageServer.Client second = server.attach("second", null);
+            send(first, didOpen());
+            send(second, didOpen());
+            // Both projects edit the shared document the same way
+            for (int version = 1; version <= 2; version++) {
+                send(first, didChange(version));
+                send(second, didChange(version));
+            }
+            // Closing in the owner hands the document to the other project, whose edits go through
+            send(first, message("{'method':'textDocument/didClose','params':{'textDocument':{'uri':'" + URI + "'}}}"));
+            send(second, didChange(3));
+            send(second, message("{'id':1,'method':'textDocument/hover','params':{'textDocument':{'uri':'" + URI
+                    + "'},'position':{'line':0,'character':0}}}"));
+
+            // The stand-in publishes diagnostics for each didOpen and didChange it gets
+            List<JsonObject> received = CompletableFuture.supplyAsync(() -> readUntilResponse(second.getInputStream()))
+                    .get(30, TimeUnit.SECONDS);
+            List<Integer> versions = new ArrayList<>();
+            for (JsonObject message : received) {
+                if (message.has("method") && message.get("method").getAsString().equals("textDocument/publishDiagnostics")) {
+                    versions.add(message.getAsJsonObject("params").get("version").getAsInt());
+                }
+            }
+            assertEquals(List.of(0, 1, 2, 3), versions);
+
+            first.detach();
+            second.detach();
+        } finally {
+            server.dispose();
+        }
+    }
+
+    private static JsonObject didOpen() {
+        return message("{'method':'textDocument/didOpen','params':{'textDocument':"
+                + "{'uri':'" + URI + "','languageId':'supersql','version':0,'text':''}}}");
+    }
+
+    private static JsonObject didChange(int version) {
+        return message("{'method':'textDocument/didChange','params':{"
+                + "'textDocument':{'uri':'" + URI + "','version':" + version + "},"
+                + "'contentChanges':[{'text':'values " + version + "'}]}}");
+    }
+
+    private static void send(SharedLanguageServer.Client client, JsonObject message) throws IOException {
+        OutputStream out = client.getOutputStream();
+        out.write(LspFrames.encode(message));
+        out.flush();
+    }
+
+    /**
+     * Messages delivered to a client, up to and including the first response.
+     */
+    private static List<JsonObject> readUntilResponse(InputStream fromServer) {
+        LspFrames.Decoder decoder = new LspFrames.Decoder();
+        List<JsonObject> messages = new ArrayList<>();
+        byte[] buffer = new byte[8192];
+        try {
+            int n;
+            while (messages.stream().noneMatch(message -> message.has("id") && !message.has("method"))
+                    && (n = fromServer.read(buffer)) >= 0) {
+                decoder.feed(buffer, 0, n, messages::add);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return messages;
+    }
+
+    private static JsonObject message(String json) {
+        JsonObject message = JsonParser.parseString(json).getAsJsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        return message;
+    }
+}
@@ -0,0 +1,280 @@
+package org.clabs.superdb.lsp;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A stand-in for superdb-lsp with scripted latencies and payload sizes, for testing the plugin's
+ * LSP integration and benchmarking it without the real server. It only uses the JDK, so it runs
+ * straight from source: point {@code supersql.lsp.path} at {@code scripts/standin-lsp.sh}.
+ * <p>
+ * Options are {@code key=value} arguments, read first from the {@code STANDIN_LSP_OPTIONS}
+ * environment variable since the plugin starts the server without arguments:
+ * <ul>
+ *   <li>{@code delay} - milliseconds before answering any request, default 0</li>
+ *   <li>{@code completion.delay}, {@code hover.delay}, {@code diagnostics.delay} - per feature</li>
+ *   <li>{@code completion.items} - items in each completion list, default 50</li>
+ *   <li>{@code hover.bytes} - length of each hover text, default 200</li>
+ *   <li>{@code diagnostics.count} - diagnostics published after each open or change, default 1</li>
+ *   <li>{@code leak.kb} - memory kept for good on each change, like a server that never stops
+ *       growing, default 0</li>
+ * </ul>
+ * A delayed request can be cancelled with {@code $/cancelRequest} until it is answered.
+ * Messages are picked apart with patterns rather than a JSON parser, which holds for LSP
+ * clients: a request's own {@code id} comes before its {@code params}.
+ */
+public final class StandInLanguageServer {
+
+    private static final Pattern METHOD = Pattern.compile("\"method\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\"(?:[^\"\\\\]|\\\\.)*\"|-?\\d+)");
+    private static final Pattern URI = Pattern.compile("\"uri\"\\s*:\\s*(\"(?:[^\"\\\\]|\\\\.)*\")");
+    private static final Pattern VERSION = Pattern.compile("\"version\"\\s*:\\s*(-?\\d+)");
+
+    private static final String CAPABILITIES = "{\"capabilities\":{\"textDocumentSync\":2,"
+            + "\"completionProvider\":{},\"hoverProvider\":true},"
+            + "\"serverInfo\":{\"name\":\"standin-lsp\"}}";
+
+    // LSP error code for a request cancelled by the client
+    private static final int REQUEST_CANCELLED = -32800;
+
+    private final Map<String, Long> options;
+    private final InputStream in;
+    private final OutputStream out;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "standin-lsp");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Delayed answers by request id; guarded by this, like writes to out
+    private final Map<String, ScheduledFuture<?>> pending = new HashMap<>();
+    private final List<byte[]> leaked = new ArrayList<>();
+
+    public StandInLanguageServer(Map<String, Long> options, InputStream in, OutputStream out) {
+        this.options = options;
+        this.in = new BufferedInputStream(in);
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, Long> options = parseOptions(System.getenv("STANDIN_LSP_OPTIONS"), args);
+        System.exit(new StandInLanguageServer(options, System.in, System.out).run());
+    }
+
+    /**
+     * Reads {@code key=value} options from {@code environment} and then {@code args}, later ones winning.
+     */
+    public static Map<String, Long> parseOptions(String environment, String[] args) {
+        Map<String, Long> options = new HashMap<>();
+        List<String> all = new ArrayList<>();
+        if (environment != null && !environment.isBlank()) {
+            all.addAll(List.of(environment.trim().split("\\s+")));
+        }
+        all.addAll(List.of(args));
+        for (String option : all) {
+            int equals = option.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value: " + option);
+            }
+            options.put(option.substring(0, equals).toLowerCase(Locale.ROOT),
+                    Long.parseLong(option.substring(equals + 1)));
+        }
+        return options;
+    }
+
+    /**
+     * Serves until {@code exit} or the end of input, returning the process exit code.
+     */
+    public int run() throws IOException {
+        try {
+            String message;
+            while ((message = readMessage()) != null) {
+                if (!handle(message)) {
+                    return 0;
+                }
+            }
+            return 1;
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private boolean handle(String message) throws IOException {
+        String method = find(METHOD, message);
+        String id = find(ID, message);
+        if (method == null) {
+            // A response to a server request; the stand-in never sends any
+            return true;
+        }
+        switch (method) {
+            case "initialize" -> answer(id, CAPABILITIES, 0);
+            case "shutdown" -> answer(id, "null", 0);
+            case "exit" -> {
+                return false;
+            }
+            case "$/cancelRequest" -> cancel(id);
+            case "textDocument/didOpen", "textDocument/didChange" -> changed(message);
+            case "textDocument/completion" -> answer(id, completion(), delay("completion"));
+            case "textDocument/hover" -> answer(id, hover(), delay("hover"));
+            default -> {
+                if (id != null) {
+                    answer(id, "null", option("delay", 0));
+                }
+            }
+        }
+        return true;
+    }
+
+    private void changed(String message) {
+        long leakKb = option("leak.kb", 0);
+        if (leakKb > 0) {
+            byte[] block = new byte[(int) leakKb * 1024];
+            // Touch every page so it counts towards the resident size
+            for (int i = 0; i < block.length; i += 4096) {
+                block[i] = 1;
+            }
+            leaked.add(block);
+        }
+        String uri = find(URI, message);
+        if (uri == null) {
+            return;
+        }
+        String version = find(VERSION, message);
+        String notification = "{\"jsonrpc\":\"2.0\",\"method\":\"textDocument/publishDiagnostics\","
+                + "\"params\":{\"uri\":" + uri + (version != null ? ",\"version\":" + version : "")
+                + ",\"diagnostics\":" + diagnostics() + "}}";
+        long delay = delay("diagnostics");
+        if (delay == 0) {
+            write(notification);
+        } else {
+            scheduler.schedule(() -> write(notification), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void answer(String id, String result, long delay) {
+        if (id == null) {
+            return;
+        }
+        String response = "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"result\":" + result + "}";
+        if (delay == 0) {
+            write(response);
+            return;
+        }
+        pending.put(id, scheduler.schedule(() -> {
+            synchronized (this) {
+                if (pending.remove(id) != null) {
+                    write(response);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+    }
+
+    private synchronized void cancel(String id) {
+        ScheduledFuture<?> answer = id != null ? pending.remove(id) : null;
+        if (answer != null) {
+            answer.cancel(false);
+            write("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"error\":{\"code\":" + REQUEST_CANCELLED
+                    + ",\"message\":\"cancelled\"}}");
+        }
+    }
+
+    private String completion() {
+        StringBuilder items = new StringBuilder("{\"isIncomplete\":false,\"items\":[");
+        long count = option("completion.items", 50);
+        for (long i = 0; i < count; i++) {
+            if (i > 0) {
+                items.append(',');
+            }
+            items.append("{\"label\":\"standin_").append(i)
+                    .append("\",\"kind\":3,\"detail\":\"standin_").append(i).append("(x)\"}");
+        }
+        return items.append("]}").toString();
+    }
+
+    private String hover() {
+        return "{\"contents\":{\"kind\":\"markdown\",\"value\":\"" + "x".repeat((int) option("hover.bytes", 200)) + "\"}}";
+    }
+
+    private String diagnostics() {
+        StringBuilder diagnostics = new StringBuilder("[");
+        long count = option("diagnostics.count", 1);
+        for (long i = 0; i < count; i++) {
+            if (i > 0) {
+                diagnostics.append(',');
+            }
+            diagnostics.append("{\"range\":{\"start\":{\"line\":0,\"character\":0},")
+                    .append("\"end\":{\"line\":0,\"character\":1}},\"severity\":2,")
+                    .append("\"source\":\"standin-lsp\",\"message\":\"standin diagnostic ").append(i).append("\"}");
+        }
+        return diagnostics.append(']').toString();
+    }
+
+    private long delay(String feature) {
+        return option(feature + ".delay", option("delay", 0));
+    }
+
+    private long option(String key, long defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private synchronized void write(String message) {
+        byte[] content = message.getBytes(StandardCharsets.UTF_8);
+        try {
+            out.write(("Content-Length: " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(content);
+            out.flush();
+        } catch (IOException e) {
+            // The client is gone; run() ends at the end of its input
+        }
+    }
+
+    /**
+     * The next message's content, or null at the end of input.
+     */
+    private String readMessage() throws IOException {
+        int length = -1;
+        String header;
+        while ((header = readLine()) != null && !header.isEmpty()) {
+            if (header.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                length = Integer.parseInt(header.substring("content-length:".length()).trim());
+            }
+        }
+        if (header == null || length < 0) {
+            return null;
+        }
+        byte[] content = in.readNBytes(length);
+        return content.length < length ? null : new String(content, StandardCharsets.UTF_8);
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                String text = line.toString(StandardCharsets.US_ASCII);
+                return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    private static String find(Pattern pattern, String message) {
+        Matcher matcher = pattern.matcher(message);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
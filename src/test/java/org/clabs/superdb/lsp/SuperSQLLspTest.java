@@ -0,0 +1,328 @@
+package org.clabs.superdb.lsp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the language server launcher that don't need LSP4IJ or a real server binary.
+ */
+public class SuperSQLLspTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testBundledBinaryIsInstalledOncePerVersion() throws IOException {
+        URL resource = resource("binary-v1");
+        Path root = temp.newFolder("system").toPath();
+
+        Path binary = BundledLspBinary.install(resource, root, "0.1.0", "superdb-lsp");
+        Assert.assertEquals(root.resolve("0.1.0").resolve("superdb-lsp"), binary);
+        Assert.assertEquals("binary-v1", Files.readString(binary));
+        Assert.assertEquals("9", Files.readString(root.resolve("0.1.0").resolve("superdb-lsp.installed")));
+
+        // A second start reuses the installed copy without writing it again
+        FileTime written = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(binary, written);
+        Assert.assertEquals(binary, BundledLspBinary.install(resource, root, "0.1.0", "superdb-lsp"));
+        Assert.assertEquals(written, Files.getLastModifiedTime(binary));
+    }
+
+    @Test
+    public void testIncompleteInstallIsReplaced() throws IOException {
+        URL resource = resource("binary-v1");
+        Path root = temp.newFolder("system").toPath();
+        Path binary = BundledLspBinary.install(resource, root, "0.1.0", "superdb-lsp");
+
+        // Interrupted copy: wrong size, then missing marker
+        Files.writeString(binary, "bin");
+        BundledLspBinary.install(resource, root, "0.1.0", "superdb-lsp");
+        Assert.assertEquals("binary-v1", Files.readString(binary));
+
+        Files.delete(root.resolve("0.1.0").resolve("superdb-lsp.installed"));
+        Files.writeString(binary, "binary-xx");
+        BundledLspBinary.install(resource, root, "0.1.0", "superdb-lsp");
+        Assert.assertEquals("binary-v1", Files.readString(binary));
+    }
+
+    @Test
+    public void testOtherVersionsArePruned() throws IOException {
+        Path root = temp.newFolder("system").toPath();
+        Path old = BundledLspBinary.install(resource("binary-v1"), root, "0.1.0", "superdb-lsp");
+        Path current = BundledLspBinary.install(resource("binary-v2"), root, "0.2.0-dev+abc", "superdb-lsp");
+
+        Assert.assertFalse(Files.exists(old));
+        Assert.assertFalse(Files.exists(old.getParent()));
+        Assert.assertEquals("binary-v2", Files.readString(current));
+        Assert.assertEquals("0.2.0-dev_abc", current.getParent().getFileName().toString());
+    }
+
+    @Test
+    public void testFindInPathReturnsFirstExecutable() throws IOException {
+        Path first = temp.newFolder("first").toPath();
+        Path second = temp.newFolder("second").toPath();
+        Path third = temp.newFolder("third").toPath();
+        Files.writeString(first.resolve("superdb-lsp"), "not executable");
+        Path expected = Files.writeString(second.resolve("superdb-lsp"), "");
+        Assert.assertTrue(expected.toFile().setExecutable(true));
+        Assert.assertTrue(Files.writeString(third.resolve("superdb-lsp"), "").toFile().setExecutable(true));
+
+        String path = String.join(File.pathSeparator, "", first.toString(), second.toString(), third.toString());
+        Assert.assertEquals(expected, SuperSQLLspBinaryLocator.findInPath("superdb-lsp", path));
+        Assert.assertNull(SuperSQLLspBinaryLocator.findInPath("super-lsp", path));
+        Assert.assertNull(SuperSQLLspBinaryLocator.findInPath("superdb-lsp", null));
+    }
+
+    @Test
+    public void testFramesSurviveArbitraryChunking() {
+        JsonObject first = new JsonObject();
+        first.addProperty("method", "textDocument/didChange");
+        first.addProperty("text", "values \u00e9t\u00e9");
+        JsonObject second = new JsonObject();
+        second.addProperty("id", 7);
+        byte[] a = LspFrames.encode(first);
+        byte[] b = LspFrames.encode(second);
+        byte[] stream = new byte[a.length + b.length];
+        System.arraycopy(a, 0, stream, 0, a.length);
+        System.arraycopy(b, 0, stream, a.length, b.length);
+
+        for (int chunk = 1; chunk <= stream.length; chunk++) {
+            LspFrames.Decoder decoder = new LspFrames.Decoder();
+            List<JsonObject> messages = new ArrayList<>();
+            for (int offset = 0; offset < stream.length; offset += chunk) {
+                decoder.feed(stream, offset, Math.min(chunk, stream.length - offset), messages::add);
+            }
+            Assert.assertEquals(List.of(first, second), messages);
+        }
+        Assert.assertEquals("textDocument/didChange", LspFrames.method(first));
+        Assert.assertNull(LspFrames.method(second));
+    }
+
+    @Test
+    public void testChangesAreMergedInOrder() {
+        JsonObject pending = didChange(1, "{'range':{'start':{'line':0,'character':0}},'text':'a'}");
+        DocumentSyncFilter.merge(pending, didChange(2, "{'range':{'start':{'line':0,'character':1}},'text':'b'}"));
+        Assert.assertEquals(2, pending.getAsJsonObject("params").getAsJsonArray("contentChanges").size());
+        Assert.assertEquals(2, pending.getAsJsonObject("params").getAsJsonObject("textDocument").get("version").getAsInt());
+
+        // A full-text change drops the ones before it
+        DocumentSyncFilter.merge(pending, didChange(3, "{'text':'values 1'}",
+                "{'range':{'start':{'line':0,'character':8}},'text':'0'}"));
+        JsonArray changes = pending.getAsJsonObject("params").getAsJsonArray("contentChanges");
+        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals("values 1", changes.get(0).getAsJsonObject().get("text").getAsString());
+    }
+
+    @Test
+    public void testTypingIsCoalescedAndStaleRequestsCancelled() throws IOException {
+        DocumentSyncFilter filter = new DocumentSyncFilter("test", 60_000);
+        ByteArrayOutputStream server = new ByteArrayOutputStream();
+        OutputStream client = filter.toServer(server);
+
+        for (int version = 1; version <= 5; version++) {
+            client.write(LspFrames.encode(didChange(version, "{'range':{'start':{'line':0,'character':0}},'text':'x'}")));
+        }
+        client.write(LspFrames.encode(completion("1")));
+        client.write(LspFrames.encode(completion("2")));
+
+        // The server answers request 2, so request 3 supersedes nothing
+        InputStream tap = filter.fromServer(new ByteArrayInputStream(LspFrames.encode(
+                JsonParser.parseString("{'jsonrpc':'2.0','id':'2','result':[]}").getAsJsonObject())));
+        tap.readAllBytes();
+        client.write(LspFrames.encode(completion("3")));
+
+        List<String> methods = new ArrayList<>();
+        byte[] sent = server.toByteArray();
+        new LspFrames.Decoder().feed(sent, 0, sent.length, message -> methods.add(LspFrames.method(message)));
+        Assert.assertEquals(List.of("textDocument/didChange", "textDocument/completion", "$/cancelRequest",
+                "textDocument/completion", "textDocument/completion"), methods);
+
+        DocumentSyncFilter.Stats stats = filter.getStats();
+        Assert.assertEquals(8, stats.received());
+        Assert.assertEquals(5, stats.sent());
+        Assert.assertEquals(4, stats.coalesced());
+        Assert.assertEquals(1, stats.cancelled());
+    }
+
+    @Test
+    public void testStatsDoNotWaitForAStalledServer() throws Exception {
+        DocumentSyncFilter filter = new DocumentSyncFilter("test", 0);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        OutputStream client = filter.toServer(new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte @NotNull [] b, int off, int len) {
+                // A full pipe to a server that stopped reading
+                writing.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Thread writer = new Thread(() -> {
+            try {
+                client.write(LspFrames.encode(completion("1")));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.start();
+        try {
+            Assert.assertTrue(writing.await(10, TimeUnit.SECONDS));
+            DocumentSyncFilter.Stats stats = CompletableFuture.supplyAsync(filter::getStats).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(1, stats.received());
+            Assert.assertEquals(0, stats.sent());
+        } finally {
+            unblock.countDown();
+            writer.join(10_000);
+        }
+    }
+
+    @Test
+    public void testLatencyHistogramBuckets() {
+        Assert.assertEquals(0, LspMetrics.Histogram.bucket(999_999));
+        Assert.assertEquals(1, LspMetrics.Histogram.bucket(1_000_000));
+        Assert.assertEquals(2, LspMetrics.Histogram.bucket(3_999_999));
+        Assert.assertEquals(3, LspMetrics.Histogram.bucket(4_000_000));
+        Assert.assertEquals(LspMetrics.Histogram.BUCKETS - 1, LspMetrics.Histogram.bucket(Long.MAX_VALUE));
+
+        LspMetrics.Histogram histogram = new LspMetrics.Histogram();
+        Assert.assertEquals(-1, histogram.percentileMillis(0.5));
+        for (int i = 0; i < 19; i++) {
+            histogram.record(500_000, false);
+        }
+        histogram.record(3_000_000_000L, true);
+        Assert.assertEquals(1, histogram.percentileMillis(0.5));
+        Assert.assertEquals(1, histogram.percentileMillis(0.95));
+        Assert.assertEquals(4096, histogram.percentileMillis(1.0));
+
+        JsonObject json = histogram.toJson();
+        Assert.assertEquals(20, json.get("count").getAsLong());
+        Assert.assertEquals(1, json.get("errors").getAsLong());
+        Assert.assertEquals(3000.0, json.get("maxMillis").getAsDouble(), 0.001);
+        Assert.assertEquals(19, json.getAsJsonArray("buckets").get(0).getAsLong());
+        Assert.assertEquals(1, json.getAsJsonArray("buckets").get(12).getAsLong());
+    }
+
+    @Test
+    public void testStandInServerScriptsPayloadsAndCancellation() throws Exception {
+        MessageInputStream toServer = new MessageInputStream();
+        MessageInputStream fromServer = new MessageInputStream();
+        OutputStream serverOutput = new OutputStream() {
+            @Override
+            public void write(int b) {
+                fromServer.deliver(new byte[]{(byte) b});
+            }
+
+            @Override
+            public void write(byte @NotNull [] b, int off, int len) {
+                fromServer.deliver(Arrays.copyOfRange(b, off, off + len));
+            }
+        };
+        StandInLanguageServer server = new StandInLanguageServer(StandInLanguageServer.parseOptions(
+                "completion.items=3 hover.delay=60000", new String[]{"diagnostics.count=2"}), toServer, serverOutput);
+        Thread thread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                fromServer.close();
+            }
+        });
+        thread.start();
+
+        toServer.deliver(LspFrames.encode(didChange(4, "{'text':'values 1'}")));
+        toServer.deliver(LspFrames.encode(completion("1")));
+        toServer.deliver(LspFrames.encode(JsonParser.parseString(
+                "{'jsonrpc':'2.0','id':2,'method':'textDocument/hover','params':{}}").getAsJsonObject()));
+        toServer.deliver(LspFrames.encode(JsonParser.parseString(
+                "{'jsonrpc':'2.0','method':'$/cancelRequest','params':{'id':2}}").getAsJsonObject()));
+        toServer.deliver(LspFrames.encode(JsonParser.parseString(
+                "{'jsonrpc':'2.0','method':'exit'}").getAsJsonObject()));
+        thread.join(10_000);
+
+        List<JsonObject> messages = new ArrayList<>();
+        byte[] output = fromServer.readAllBytes();
+        new LspFrames.Decoder().feed(output, 0, output.length, messages::add);
+        Assert.assertEquals(3, messages.size());
+
+        JsonObject diagnostics = messages.get(0).getAsJsonObject("params");
+        Assert.assertEquals("file:///q.spq", diagnostics.get("uri").getAsString());
+        Assert.assertEquals(4, diagnostics.get("version").getAsInt());
+        Assert.assertEquals(2, diagnostics.getAsJsonArray("diagnostics").size());
+        Assert.assertEquals("1", messages.get(1).get("id").getAsString());
+        Assert.assertEquals(3, messages.get(1).getAsJsonObject("result").getAsJsonArray("items").size());
+        Assert.assertEquals(2, messages.get(2).get("id").getAsInt());
+        Assert.assertEquals(-32800, messages.get(2).getAsJsonObject("error").get("code").getAsInt());
+    }
+
+    @Test
+    public void testRestartBackoffDoublesUpToTheLimit() {
+        Assert.assertEquals(0, LspSupervisor.backoffMillis(1, 300_000));
+        Assert.assertEquals(1_000, LspSupervisor.backoffMillis(2, 300_000));
+        Assert.assertEquals(2_000, LspSupervisor.backoffMillis(3, 300_000));
+        Assert.assertEquals(256_000, LspSupervisor.backoffMillis(10, 300_000));
+        Assert.assertEquals(300_000, LspSupervisor.backoffMillis(11, 300_000));
+        Assert.assertEquals(300_000, LspSupervisor.backoffMillis(1_000, 300_000));
+    }
+
+    @Test
+    public void testCpuPercentBetweenSamples() {
+        ProcessStats before = new ProcessStats(1, 2_000_000_000L);
+        ProcessStats after = new ProcessStats(1, 3_500_000_000L);
+        Assert.assertEquals(150, LspSupervisor.cpuPercent(before, 0, after, 1_000_000_000L));
+        Assert.assertEquals(-1, LspSupervisor.cpuPercent(ProcessStats.UNKNOWN, 0, after, 1_000_000_000L));
+        Assert.assertEquals(-1, LspSupervisor.cpuPercent(null, 0, after, 1_000_000_000L));
+    }
+
+    private static JsonObject didChange(int version, String... changes) {
+        return JsonParser.parseString("{'jsonrpc':'2.0','method':'textDocument/didChange','params':{"
+                + "'textDocument':{'uri':'file:///q.spq','version':" + version + "},"
+                + "'contentChanges':[" + String.join(",", changes) + "]}}").getAsJsonObject();
+    }
+
+    private static JsonObject completion(String id) {
+        return JsonParser.parseString("{'jsonrpc':'2.0','id':'" + id + "','method':'textDocument/completion',"
+                + "'params':{'textDocument':{'uri':'file:///q.spq'},'position':{'line':0,'character':1}}}")
+                .getAsJsonObject();
+    }
+
+    private URL resource(String content) throws IOException {
+        Path file = temp.newFile().toPath();
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toUri().toURL();
+    }
+}